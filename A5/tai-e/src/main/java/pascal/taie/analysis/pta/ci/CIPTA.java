@@ -42,9 +42,16 @@ public class CIPTA extends ProgramAnalysis {
     @Override
     public PointerAnalysisResult analyze() {
         HeapModel heapModel = new AllocationSiteBasedModel(getOptions());
-        Solver solver = new Solver(heapModel);
-        solver.solve();
-        CIPTAResult result = solver.getResult();
+        CIPTAResult result;
+        if ("dense".equals(getOptions().getString("solver"))) {
+            DenseSolver solver = new DenseSolver(heapModel);
+            solver.solve();
+            result = solver.getResult();
+        } else {
+            Solver solver = new Solver(heapModel);
+            solver.solve();
+            result = solver.getResult();
+        }
         new ResultProcessor(getOptions()).process(result);
         return result;
     }
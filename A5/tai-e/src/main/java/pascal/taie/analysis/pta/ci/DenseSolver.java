@@ -0,0 +1,398 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.pta.ci;
+
+import pascal.taie.World;
+import pascal.taie.analysis.graph.callgraph.CallGraphs;
+import pascal.taie.analysis.graph.callgraph.DefaultCallGraph;
+import pascal.taie.analysis.graph.callgraph.Edge;
+import pascal.taie.analysis.pta.core.VarOps;
+import pascal.taie.analysis.pta.core.heap.HeapModel;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Copy;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.LoadField;
+import pascal.taie.ir.stmt.New;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.ir.stmt.StoreField;
+import pascal.taie.language.classes.JField;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.collection.LongHashSet;
+import pascal.taie.util.collection.LongObjectMap;
+import pascal.taie.util.collection.Maps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Variant of {@link Solver} in which every pointer and every abstract
+ * object is a dense int.
+ * <p>
+ * PFG adjacency is stored in growable int arrays, and points-to sets are
+ * {@link BitSet}s over object ids. The work list holds pointers whose
+ * pending objects are accumulated in one bit set per pointer, so that
+ * each pointer is processed once for all objects propagated to it in the
+ * meantime. Pointer objects ({@link VarPtr}, {@link InstanceField}, etc.)
+ * are only created when the result is built, so that clients see the
+ * same {@link CIPTAResult} as produced by {@link Solver}.
+ */
+class DenseSolver {
+
+    private static final byte VAR = 0, STATIC_FIELD = 1,
+            INSTANCE_FIELD = 2, ARRAY_INDEX = 3;
+
+    private final HeapModel heapModel;
+
+    private DefaultCallGraph callGraph;
+
+    // ---------- objects ----------
+
+    private final List<Obj> objs = new ArrayList<>();
+
+    private final Map<Obj, Integer> objIds = Maps.newMap();
+
+    // ---------- pointers ----------
+
+    private final Map<Var, Integer> varIds = Maps.newMap();
+
+    private final Map<JField, Integer> staticFieldIds = Maps.newMap();
+
+    private final Map<JField, Integer> fieldIndexes = Maps.newMap();
+
+    /**
+     * Ids of instance field pointers, keyed by (object id, field index).
+     */
+    private final LongObjectMap<Integer> instanceFieldIds = new LongObjectMap<>();
+
+    /**
+     * Ids of array index pointers plus 1, indexed by object id.
+     */
+    private int[] arrayIndexIds = new int[16];
+
+    private int numPointers = 0;
+
+    private byte[] kinds = new byte[16];
+
+    /**
+     * Var for variables, JField for static/instance fields,
+     * and null for array indexes.
+     */
+    private Object[] elems = new Object[16];
+
+    /**
+     * Base object ids of instance fields and array indexes.
+     */
+    private int[] bases = new int[16];
+
+    // ---------- pointer flow graph ----------
+
+    private int[][] succs = new int[16][];
+
+    private int[] numSuccs = new int[16];
+
+    /**
+     * Packed (source, target) pairs of PFG edges.
+     */
+    private final LongHashSet edges = new LongHashSet();
+
+    // ---------- points-to sets and work list ----------
+
+    private BitSet[] pts = new BitSet[16];
+
+    /**
+     * Objects propagated to each pointer but not processed yet.
+     * A pointer is in the work list iff its pending set is non-null.
+     */
+    private BitSet[] pending = new BitSet[16];
+
+    private int[] queue = new int[16];
+
+    private int queueHead = 0, queueSize = 0;
+
+    DenseSolver(HeapModel heapModel) {
+        this.heapModel = heapModel;
+    }
+
+    /**
+     * Runs pointer analysis algorithm.
+     */
+    void solve() {
+        callGraph = new DefaultCallGraph();
+        JMethod main = World.get().getMainMethod();
+        callGraph.addEntryMethod(main);
+        addReachable(main);
+        analyze();
+    }
+
+    /**
+     * Processes new reachable method.
+     */
+    private void addReachable(JMethod method) {
+        if (callGraph.contains(method)) {
+            return;
+        }
+        callGraph.addReachableMethod(method);
+        for (Stmt stmt : method.getIR()) {
+            if (stmt instanceof New newStmt) {
+                addPending(varId(newStmt.getLValue()),
+                        objId(heapModel.getObj(newStmt)));
+            } else if (stmt instanceof Copy copy) {
+                addEdge(varId(copy.getRValue()), varId(copy.getLValue()));
+            } else if (stmt instanceof LoadField load && load.isStatic()) {
+                addEdge(staticFieldId(load.getFieldRef().resolve()),
+                        varId(load.getLValue()));
+            } else if (stmt instanceof StoreField store && store.isStatic()) {
+                addEdge(varId(store.getRValue()),
+                        staticFieldId(store.getFieldRef().resolve()));
+            } else if (stmt instanceof Invoke invoke && invoke.isStatic()) {
+                JMethod callee = invoke.getMethodRef().resolveNullable();
+                if (callee != null) {
+                    addCallEdge(invoke, callee);
+                }
+            }
+        }
+    }
+
+    /**
+     * Processes work-list entries until the work-list is empty.
+     */
+    private void analyze() {
+        while (queueSize > 0) {
+            int p = queue[queueHead];
+            queueHead = (queueHead + 1) % queue.length;
+            --queueSize;
+            BitSet delta = pending[p];
+            pending[p] = null;
+            BitSet ptsP = ptsOf(p);
+            delta.andNot(ptsP);
+            if (delta.isEmpty()) {
+                continue;
+            }
+            ptsP.or(delta);
+            int[] succsP = succs[p];
+            for (int i = 0; i < numSuccs[p]; ++i) {
+                addPending(succsP[i], delta);
+            }
+            if (kinds[p] == VAR) {
+                VarOps ops = VarOps.of((Var) elems[p]);
+                if (!ops.isEmpty()) {
+                    processInstanceOps(ops, delta);
+                }
+            }
+        }
+    }
+
+    private void processInstanceOps(VarOps ops, BitSet delta) {
+        for (int o = delta.nextSetBit(0); o >= 0; o = delta.nextSetBit(o + 1)) {
+            for (int i = 0; i < ops.storeFields.length; ++i) { // x.f = y
+                addEdge(varId(ops.storeSources[i]),
+                        instanceFieldId(o, ops.storeFields[i]));
+            }
+            for (int i = 0; i < ops.loadFields.length; ++i) { // y = x.f
+                addEdge(instanceFieldId(o, ops.loadFields[i]),
+                        varId(ops.loadTargets[i]));
+            }
+            for (Var y : ops.loadArrayTargets) { // y = x[i]
+                addEdge(arrayIndexId(o), varId(y));
+            }
+            for (Var y : ops.storeArraySources) { // x[i] = y
+                addEdge(varId(y), arrayIndexId(o));
+            }
+            for (Invoke invoke : ops.invokes) {
+                JMethod callee = CallGraphs.resolveCallee(
+                        objs.get(o).getType(), invoke);
+                if (callee != null) {
+                    addPending(varId(callee.getIR().getThis()), o);
+                    addCallEdge(invoke, callee);
+                }
+            }
+        }
+    }
+
+    private void addCallEdge(Invoke invoke, JMethod callee) {
+        if (callGraph.addEdge(new Edge<>(
+                CallGraphs.getCallKind(invoke), invoke, callee))) {
+            addReachable(callee);
+            IR ir = callee.getIR();
+            List<Var> args = invoke.getInvokeExp().getArgs();
+            for (int i = 0; i < args.size(); ++i) {
+                addEdge(varId(args.get(i)), varId(ir.getParam(i)));
+            }
+            Var lhs = invoke.getLValue();
+            if (lhs != null) {
+                for (Var ret : ir.getReturnVars()) {
+                    addEdge(varId(ret), varId(lhs));
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds an edge "source -> target" to the PFG.
+     */
+    private void addEdge(int source, int target) {
+        if (!edges.add(LongObjectMap.key(source, target))) {
+            return;
+        }
+        int[] succsS = succs[source];
+        int n = numSuccs[source];
+        if (succsS == null) {
+            succs[source] = succsS = new int[4];
+        } else if (n == succsS.length) {
+            succs[source] = succsS = Arrays.copyOf(succsS, n << 1);
+        }
+        succsS[n] = target;
+        numSuccs[source] = n + 1;
+        BitSet ptsS = pts[source];
+        if (ptsS != null && !ptsS.isEmpty()) {
+            addPending(target, ptsS);
+        }
+    }
+
+    private void addPending(int pointer, BitSet objs) {
+        pendingOf(pointer).or(objs);
+    }
+
+    private void addPending(int pointer, int obj) {
+        pendingOf(pointer).set(obj);
+    }
+
+    /**
+     * @return the pending set of given pointer, and adds the pointer to
+     * the work list if it is not in the work list.
+     */
+    private BitSet pendingOf(int pointer) {
+        BitSet pend = pending[pointer];
+        if (pend == null) {
+            pending[pointer] = pend = new BitSet();
+            if (queueSize == queue.length) {
+                int[] newQueue = new int[queue.length << 1];
+                for (int i = 0; i < queueSize; ++i) {
+                    newQueue[i] = queue[(queueHead + i) % queue.length];
+                }
+                queue = newQueue;
+                queueHead = 0;
+            }
+            queue[(queueHead + queueSize) % queue.length] = pointer;
+            ++queueSize;
+        }
+        return pend;
+    }
+
+    private BitSet ptsOf(int pointer) {
+        BitSet ptsP = pts[pointer];
+        if (ptsP == null) {
+            pts[pointer] = ptsP = new BitSet();
+        }
+        return ptsP;
+    }
+
+    // ---------- dense ids ----------
+
+    private int objId(Obj obj) {
+        return objIds.computeIfAbsent(obj, o -> {
+            objs.add(o);
+            return objs.size() - 1;
+        });
+    }
+
+    private int varId(Var var) {
+        return varIds.computeIfAbsent(var, v -> newPointer(VAR, v, -1));
+    }
+
+    private int staticFieldId(JField field) {
+        return staticFieldIds.computeIfAbsent(field,
+                f -> newPointer(STATIC_FIELD, f, -1));
+    }
+
+    private int instanceFieldId(int base, JField field) {
+        int fieldIndex = fieldIndexes.computeIfAbsent(
+                field, f -> fieldIndexes.size());
+        return instanceFieldIds.computeIfAbsent(
+                LongObjectMap.key(base, fieldIndex),
+                unused -> newPointer(INSTANCE_FIELD, field, base));
+    }
+
+    private int arrayIndexId(int base) {
+        if (base >= arrayIndexIds.length) {
+            arrayIndexIds = Arrays.copyOf(arrayIndexIds,
+                    Math.max(base + 1, arrayIndexIds.length << 1));
+        }
+        if (arrayIndexIds[base] == 0) {
+            arrayIndexIds[base] = newPointer(ARRAY_INDEX, null, base) + 1;
+        }
+        return arrayIndexIds[base] - 1;
+    }
+
+    private int newPointer(byte kind, Object elem, int base) {
+        int id = numPointers++;
+        if (id == kinds.length) {
+            int capacity = id << 1;
+            kinds = Arrays.copyOf(kinds, capacity);
+            elems = Arrays.copyOf(elems, capacity);
+            bases = Arrays.copyOf(bases, capacity);
+            succs = Arrays.copyOf(succs, capacity);
+            numSuccs = Arrays.copyOf(numSuccs, capacity);
+            pts = Arrays.copyOf(pts, capacity);
+            pending = Arrays.copyOf(pending, capacity);
+        }
+        kinds[id] = kind;
+        elems[id] = elem;
+        bases[id] = base;
+        return id;
+    }
+
+    /**
+     * Builds the result in terms of the pointers of {@link PointerFlowGraph}.
+     */
+    CIPTAResult getResult() {
+        PointerFlowGraph pointerFlowGraph = new PointerFlowGraph();
+        Pointer[] pointers = new Pointer[numPointers];
+        for (int p = 0; p < numPointers; ++p) {
+            pointers[p] = switch (kinds[p]) {
+                case VAR -> pointerFlowGraph.getVarPtr((Var) elems[p]);
+                case STATIC_FIELD -> pointerFlowGraph.getStaticField((JField) elems[p]);
+                case INSTANCE_FIELD -> pointerFlowGraph.getInstanceField(
+                        objs.get(bases[p]), (JField) elems[p]);
+                default -> pointerFlowGraph.getArrayIndex(objs.get(bases[p]));
+            };
+        }
+        for (int p = 0; p < numPointers; ++p) {
+            BitSet ptsP = pts[p];
+            if (ptsP != null) {
+                PointsToSet pointsToSet = pointers[p].getPointsToSet();
+                ptsP.stream().forEach(o -> pointsToSet.addObject(objs.get(o)));
+            }
+            for (int i = 0; i < numSuccs[p]; ++i) {
+                pointerFlowGraph.addEdge(pointers[p], pointers[succs[p][i]]);
+            }
+        }
+        return new CIPTAResult(pointerFlowGraph, callGraph);
+    }
+}
@@ -30,6 +30,7 @@ import pascal.taie.analysis.graph.callgraph.CallGraphs;
 import pascal.taie.analysis.graph.callgraph.CallKind;
 import pascal.taie.analysis.graph.callgraph.DefaultCallGraph;
 import pascal.taie.analysis.graph.callgraph.Edge;
+import pascal.taie.analysis.pta.core.VarOps;
 import pascal.taie.analysis.pta.core.heap.HeapModel;
 import pascal.taie.analysis.pta.core.heap.Obj;
 import pascal.taie.ir.exp.InvokeExp;
@@ -196,27 +197,10 @@ class Solver {
             Pointer n = et.pointer();
             PointsToSet pts = et.pointsToSet();
             PointsToSet delta = propagate(n,pts);
-            if(n instanceof VarPtr){
-                Var x = ((VarPtr) n).getVar();
-                for (Obj o:
-                     delta) {
-                    for(StoreField sf:x.getStoreFields()){//x.f = y
-                        addPFGEdge(pointerFlowGraph.getVarPtr(sf.getRValue()),
-                                pointerFlowGraph.getInstanceField(o,sf.getFieldRef().resolve()));
-                    }
-                    for(LoadField lf:x.getLoadFields()){// y = x.f
-                        addPFGEdge(pointerFlowGraph.getInstanceField(o,lf.getFieldRef().resolve()),
-                                pointerFlowGraph.getVarPtr(lf.getLValue()));
-                    }
-                    for(LoadArray la:x.getLoadArrays()){//y = x[i]
-                        addPFGEdge(pointerFlowGraph.getArrayIndex(o),
-                                pointerFlowGraph.getVarPtr(la.getLValue()));
-                    }
-                    for(StoreArray sa:x.getStoreArrays()){ //x[i] = y
-                        addPFGEdge(pointerFlowGraph.getVarPtr(sa.getRValue()),
-                                pointerFlowGraph.getArrayIndex(o));
-                    }
-                    processCall(x,o);
+            if (n instanceof VarPtr varPtr) {
+                VarOps ops = VarOps.of(varPtr.getVar());
+                if (!ops.isEmpty()) {
+                    processInstanceOps(ops, delta);
                 }
             }
         }
@@ -253,14 +237,45 @@ class Solver {
         return delta;
     }
 
+    /**
+     * Processes instance field stores/loads, array stores/loads and
+     * instance calls on a variable when its points-to set changes.
+     *
+     * @param ops   the operations on the variable
+     * @param delta set of new discovered objects pointed by the variable.
+     */
+    private void processInstanceOps(VarOps ops, PointsToSet delta) {
+        for (Obj o : delta) {
+            for (int i = 0; i < ops.storeFields.length; ++i) { // x.f = y
+                addPFGEdge(pointerFlowGraph.getVarPtr(ops.storeSources[i]),
+                        pointerFlowGraph.getInstanceField(o, ops.storeFields[i]));
+            }
+            for (int i = 0; i < ops.loadFields.length; ++i) { // y = x.f
+                addPFGEdge(pointerFlowGraph.getInstanceField(o, ops.loadFields[i]),
+                        pointerFlowGraph.getVarPtr(ops.loadTargets[i]));
+            }
+            for (Var y : ops.loadArrayTargets) { // y = x[i]
+                addPFGEdge(pointerFlowGraph.getArrayIndex(o),
+                        pointerFlowGraph.getVarPtr(y));
+            }
+            for (Var y : ops.storeArraySources) { // x[i] = y
+                addPFGEdge(pointerFlowGraph.getVarPtr(y),
+                        pointerFlowGraph.getArrayIndex(o));
+            }
+            if (ops.invokes.length > 0) {
+                processCall(ops.invokes, o);
+            }
+        }
+    }
+
     /**
      * Processes instance calls when points-to set of the receiver variable changes.
      *
-     * @param var the variable that holds receiver objects
-     * @param recv a new discovered object pointed by the variable.
+     * @param invokes the instance calls on the variable that holds receiver objects
+     * @param recv    a new discovered object pointed by the variable.
      */
-    private void processCall(Var var, Obj recv) {
-        for(Invoke invoke : var.getInvokes()){
+    private void processCall(Invoke[] invokes, Obj recv) {
+        for(Invoke invoke : invokes){
             JMethod m = resolveCallee(recv,invoke);
             Var mthis = m.getIR().getThis();
             workList.addEntry(pointerFlowGraph.getVarPtr(mthis),new PointsToSet(recv));
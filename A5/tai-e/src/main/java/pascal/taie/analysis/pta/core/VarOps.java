@@ -0,0 +1,133 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.pta.core;
+
+import pascal.taie.World;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.LoadArray;
+import pascal.taie.ir.stmt.LoadField;
+import pascal.taie.ir.stmt.StoreArray;
+import pascal.taie.ir.stmt.StoreField;
+import pascal.taie.language.classes.JField;
+import pascal.taie.util.collection.Maps;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Operations on a variable which need to be processed by pointer analysis
+ * when the points-to set of the variable changes, i.e., instance field
+ * stores/loads, array stores/loads and instance calls on the variable.
+ * <p>
+ * The field references are resolved when the record is built, and the
+ * operands are stored in parallel arrays, so that the solvers do not
+ * query {@link Var} and resolve the same references for every new object.
+ * The records only depend on the program, thus all pointer analyses of
+ * the same program share them via {@link #of(Var)}.
+ */
+public final class VarOps {
+
+    private static Map<Var, VarOps> cache;
+
+    static {
+        World.registerResetCallback(() -> cache = null);
+    }
+
+    /**
+     * x.f = y: x.storeFields[i] = storeSources[i].
+     */
+    public final JField[] storeFields;
+
+    public final Var[] storeSources;
+
+    /**
+     * y = x.f: loadTargets[i] = x.loadFields[i].
+     */
+    public final JField[] loadFields;
+
+    public final Var[] loadTargets;
+
+    /**
+     * x[i] = y: x[*] = storeArraySources[i].
+     */
+    public final Var[] storeArraySources;
+
+    /**
+     * y = x[i]: loadArrayTargets[i] = x[*].
+     */
+    public final Var[] loadArrayTargets;
+
+    /**
+     * Instance calls whose receiver variable is x.
+     */
+    public final Invoke[] invokes;
+
+    private VarOps(Var var) {
+        List<StoreField> storeFieldStmts = var.getStoreFields();
+        storeFields = new JField[storeFieldStmts.size()];
+        storeSources = new Var[storeFieldStmts.size()];
+        for (int i = 0; i < storeFields.length; ++i) {
+            StoreField store = storeFieldStmts.get(i);
+            storeFields[i] = store.getFieldRef().resolve();
+            storeSources[i] = store.getRValue();
+        }
+        List<LoadField> loadFieldStmts = var.getLoadFields();
+        loadFields = new JField[loadFieldStmts.size()];
+        loadTargets = new Var[loadFieldStmts.size()];
+        for (int i = 0; i < loadFields.length; ++i) {
+            LoadField load = loadFieldStmts.get(i);
+            loadFields[i] = load.getFieldRef().resolve();
+            loadTargets[i] = load.getLValue();
+        }
+        storeArraySources = var.getStoreArrays()
+                .stream()
+                .map(StoreArray::getRValue)
+                .toArray(Var[]::new);
+        loadArrayTargets = var.getLoadArrays()
+                .stream()
+                .map(LoadArray::getLValue)
+                .toArray(Var[]::new);
+        invokes = var.getInvokes().toArray(new Invoke[0]);
+    }
+
+    /**
+     * @return the operations on given variable.
+     */
+    public static VarOps of(Var var) {
+        if (cache == null) {
+            cache = Maps.newMap();
+        }
+        return cache.computeIfAbsent(var, VarOps::new);
+    }
+
+    /**
+     * @return true if there is no operation on the variable.
+     */
+    public boolean isEmpty() {
+        return storeFields.length == 0 && loadFields.length == 0 &&
+                storeArraySources.length == 0 && loadArrayTargets.length == 0 &&
+                invokes.length == 0;
+    }
+}
@@ -0,0 +1,167 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.util.collection;
+
+/**
+ * Hash set of primitive {@code long} values.
+ * <p>
+ * Like {@link LongObjectMap}, the set uses open addressing with linear
+ * probing, so that neither lookups nor insertions box the values.
+ */
+public final class LongHashSet {
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    /**
+     * Marks empty slots. The element of the same value is tracked
+     * by {@link #containsFree}.
+     */
+    private static final long FREE = 0L;
+
+    private long[] elems;
+
+    private boolean containsFree;
+
+    private int size;
+
+    private int threshold;
+
+    public LongHashSet() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public LongHashSet(int initialCapacity) {
+        allocate(Integer.highestOneBit(Math.max(initialCapacity, 2) * 2 - 1));
+    }
+
+    /**
+     * @return true if this set contains given element, otherwise false.
+     */
+    public boolean contains(long elem) {
+        if (elem == FREE) {
+            return containsFree;
+        }
+        int mask = elems.length - 1;
+        for (int i = LongObjectMap.hash(elem) & mask; elems[i] != FREE;
+             i = (i + 1) & mask) {
+            if (elems[i] == elem) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Adds an element to this set.
+     *
+     * @return true if this set changed as a result of the call,
+     * otherwise false.
+     */
+    public boolean add(long elem) {
+        if (elem == FREE) {
+            if (containsFree) {
+                return false;
+            }
+            containsFree = true;
+            ++size;
+            return true;
+        }
+        int mask = elems.length - 1;
+        int i = LongObjectMap.hash(elem) & mask;
+        for (; elems[i] != FREE; i = (i + 1) & mask) {
+            if (elems[i] == elem) {
+                return false;
+            }
+        }
+        elems[i] = elem;
+        if (++size >= threshold) {
+            rehash(elems.length << 1);
+        }
+        return true;
+    }
+
+    /**
+     * Removes an element from this set.
+     *
+     * @return true if this set changed as a result of the call,
+     * otherwise false.
+     */
+    public boolean remove(long elem) {
+        if (elem == FREE) {
+            if (!containsFree) {
+                return false;
+            }
+            containsFree = false;
+            --size;
+            return true;
+        }
+        int mask = elems.length - 1;
+        int i = LongObjectMap.hash(elem) & mask;
+        for (; elems[i] != elem; i = (i + 1) & mask) {
+            if (elems[i] == FREE) {
+                return false;
+            }
+        }
+        // shift back the following elements of the probe sequence,
+        // so that no tombstone is needed
+        for (int j = (i + 1) & mask; elems[j] != FREE; j = (j + 1) & mask) {
+            int home = LongObjectMap.hash(elems[j]) & mask;
+            // move elems[j] to i if its home slot is not in (i, j]
+            if (((j - home) & mask) >= ((j - i) & mask)) {
+                elems[i] = elems[j];
+                i = j;
+            }
+        }
+        elems[i] = FREE;
+        --size;
+        return true;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    private void allocate(int capacity) {
+        elems = new long[capacity];
+        threshold = capacity >> 1;
+    }
+
+    private void rehash(int newCapacity) {
+        long[] oldElems = elems;
+        allocate(newCapacity);
+        int mask = newCapacity - 1;
+        for (long elem : oldElems) {
+            if (elem != FREE) {
+                int i = LongObjectMap.hash(elem) & mask;
+                while (elems[i] != FREE) {
+                    i = (i + 1) & mask;
+                }
+                elems[i] = elem;
+            }
+        }
+    }
+}
@@ -59,6 +59,11 @@ public class CIPTATest {
         Tests.testCIPTA(DIR, "Call");
     }
 
+    @Test
+    public void testCallDense() {
+        Tests.testCIPTA(DIR, "Call", "solver:dense");
+    }
+
     @Test
     public void testInstanceField() {
         Tests.testCIPTA(DIR, "InstanceField");
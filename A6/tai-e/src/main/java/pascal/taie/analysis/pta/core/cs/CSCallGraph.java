@@ -35,6 +35,7 @@ import pascal.taie.util.collection.Sets;
 import pascal.taie.util.collection.Views;
 
 import java.util.Collections;
+import java.util.List;
 import java.util.Set;
 import java.util.stream.Stream;
 
@@ -88,6 +89,32 @@ public class CSCallGraph extends AbstractCallGraph<CSCallSite, CSMethod> {
         }
     }
 
+    /**
+     * Removes a reachable method, and all call edges to it and
+     * from the call sites in it, from this call graph.
+     *
+     * @return true if this call graph changed as a result of the call,
+     * otherwise false.
+     */
+    public boolean removeReachableMethod(CSMethod csMethod) {
+        if (!reachableMethods.remove(csMethod)) {
+            return false;
+        }
+        entryMethods.remove(csMethod);
+        List.copyOf(csMethod.getEdges()).forEach(this::removeEdge);
+        callSitesIn(csMethod).forEach(csCallSite ->
+                List.copyOf(csCallSite.getEdges()).forEach(this::removeEdge));
+        return true;
+    }
+
+    /**
+     * Removes a call graph edge from this call graph.
+     */
+    public void removeEdge(Edge<CSCallSite, CSMethod> edge) {
+        edge.getCallSite().removeEdge(edge);
+        edge.getCallee().removeEdge(edge);
+    }
+
     @Override
     public Set<CSCallSite> getCallersOf(CSMethod callee) {
         return Views.toMappedSet(callee.getEdges(), Edge::getCallSite);
@@ -22,11 +22,16 @@
 
 package pascal.taie.analysis.pta.core.cs.context;
 
+import pascal.taie.util.Indexable;
+
 /**
  * Representation of contexts in context-sensitive pointer analysis.
  * Each context can be seen as a list of zero or more context elements.
+ * <p>
+ * Each context has a unique index (see {@link #getIndex()}), which
+ * allows other data structures to use contexts as primitive keys.
  */
-public interface Context {
+public interface Context extends Indexable {
 
     /**
      * @return the length (i.e., the number of elements) of this context.
@@ -22,29 +22,83 @@
 
 package pascal.taie.analysis.pta.core.cs.context;
 
+import pascal.taie.World;
 import pascal.taie.util.AnalysisException;
+import pascal.taie.util.collection.Maps;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 /**
  * List-based contexts. Each context is represented by a list of context elements.
+ * <p>
+ * Contexts are interned: they are organized as a trie rooted at the empty
+ * context, where each node stores its last element and a link to its parent
+ * (the context without the last element). Thus, each distinct list of
+ * context elements is represented by exactly one {@link ListContext} object,
+ * and two contexts are equal if and only if they are the same object.
+ * Appending an element to a context, and dropping the first element of
+ * a context, are memoized, so that selecting a k-limited context
+ * (see {@link #append(Context, Object, int)}) does not allocate
+ * any object once the resulting context exists.
  *
  * @param <T> type of context elements
  */
 public class ListContext<T> implements Context {
 
     /**
-     * The empty context.
+     * Counter for assigning indexes to contexts. The index of the empty
+     * context is 0, and the other contexts are indexed in creation order.
      */
-    private static final ListContext<?> EMPTY_CONTEXT = new ListContext<>(List.of());
+    private static int counter = 0;
 
     /**
-     * List of elements in the context.
+     * The empty context, i.e., root of the context trie.
      */
-    private final List<T> elements;
+    private static final ListContext<?> EMPTY_CONTEXT = new ListContext<>(null, null);
 
-    private ListContext(List<T> elements) {
-        this.elements = elements;
+    static {
+        // contexts hold program elements (e.g., objects and call sites),
+        // so discard the trie when the world is reset
+        World.registerResetCallback(ListContext::reset);
+    }
+
+    /**
+     * The context without the last element, or null for the empty context.
+     */
+    private final ListContext<T> parent;
+
+    /**
+     * The last element of this context.
+     */
+    private final T element;
+
+    /**
+     * The number of elements in this context.
+     */
+    private final int length;
+
+    private final int index;
+
+    /**
+     * Map from element e to the context [this, e].
+     * Created on demand as most contexts are leaves of the trie.
+     */
+    private Map<T, ListContext<T>> children;
+
+    /**
+     * The context without the first element of this context.
+     * Computed on demand, see {@link #tail()}.
+     */
+    private ListContext<T> tail;
+
+    private ListContext(ListContext<T> parent, T element) {
+        this.parent = parent;
+        this.element = element;
+        this.length = parent == null ? 0 : parent.length + 1;
+        this.index = counter++;
     }
 
     /**
@@ -59,43 +113,127 @@ public class ListContext<T> implements Context {
      */
     @SafeVarargs
     public static <T> Context make(T... elements) {
-        return elements.length == 0 ?
-                EMPTY_CONTEXT : new ListContext<>(List.of(elements));
+        ListContext<T> context = empty();
+        for (T element : elements) {
+            context = context.child(element);
+        }
+        return context;
+    }
+
+    /**
+     * Appends an element to a context, and keeps at most the last
+     * {@code limit} elements, i.e., for parent context [c1, ..., cn],
+     * this method returns [c(n-limit+2), ..., cn, elem].
+     * This is the common operation of k-limiting context selectors.
+     *
+     * @param parent the context to be extended, which must be
+     *               created by {@link ListContext}
+     * @param elem   the element to be appended
+     * @param limit  the maximum length of the resulting context
+     * @return the resulting context.
+     */
+    public static <T> Context append(Context parent, T elem, int limit) {
+        if (limit <= 0) {
+            return EMPTY_CONTEXT;
+        }
+        ListContext<T> context = truncate(cast(parent), limit - 1);
+        return context.child(elem);
+    }
+
+    /**
+     * @return a context that consists of the last {@code limit} elements
+     * of given context. If the length of the context does not exceed
+     * {@code limit}, then the context itself is returned.
+     */
+    public static Context truncate(Context context, int limit) {
+        return truncate(cast(context), limit);
+    }
+
+    private static <T> ListContext<T> truncate(ListContext<T> context, int limit) {
+        ListContext<T> result = context;
+        while (result.length > Math.max(limit, 0)) {
+            result = result.tail();
+        }
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> ListContext<T> empty() {
+        return (ListContext<T>) EMPTY_CONTEXT;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> ListContext<T> cast(Context context) {
+        if (context instanceof ListContext<?> listContext) {
+            return (ListContext<T>) listContext;
+        }
+        throw new AnalysisException(context + " is not a ListContext");
+    }
+
+    /**
+     * @return the interned context [this, elem].
+     */
+    private ListContext<T> child(T elem) {
+        if (children == null) {
+            children = Maps.newHybridMap();
+        }
+        ListContext<T> child = children.get(elem);
+        if (child == null) {
+            child = new ListContext<>(this, elem);
+            children.put(elem, child);
+        }
+        return child;
+    }
+
+    /**
+     * @return the interned context that drops the first element of this context.
+     */
+    private ListContext<T> tail() {
+        if (tail == null) {
+            tail = length == 1 ? empty() : parent.tail().child(element);
+        }
+        return tail;
+    }
+
+    private static void reset() {
+        EMPTY_CONTEXT.children = null;
+        counter = EMPTY_CONTEXT.index + 1;
+    }
+
+    @Override
+    public int getIndex() {
+        return index;
     }
 
     @Override
     public int getLength() {
-        return elements.size();
+        return length;
     }
 
     @Override
     public Object getElementAt(int i) {
-        if (i >= elements.size()) {
+        if (i < 0 || i >= length) {
             throw new AnalysisException(
                     "Context " + this + " doesn't have " + i + "-th element");
         }
-        return elements.get(i);
-    }
-
-    @Override
-    public boolean equals(Object o) {
-        if (this == o) {
-            return true;
-        }
-        if (o == null || getClass() != o.getClass()) {
-            return false;
+        ListContext<T> context = this;
+        for (int j = length - 1; j > i; --j) {
+            context = context.parent;
         }
-        ListContext<?> that = (ListContext<?>) o;
-        return elements.equals(that.elements);
+        return context.element;
     }
 
-    @Override
-    public int hashCode() {
-        return elements.hashCode();
-    }
+    // As contexts are interned, equals() and hashCode() inherited from
+    // Object (i.e., identity comparison) are consistent with the
+    // equality of the element lists.
 
     @Override
     public String toString() {
+        List<T> elements = new ArrayList<>(length);
+        for (ListContext<T> c = this; c.parent != null; c = c.parent) {
+            elements.add(c.element);
+        }
+        Collections.reverse(elements);
         return elements.toString();
     }
 }
@@ -26,8 +26,26 @@ import pascal.taie.analysis.pta.pts.PointsToSet;
 
 abstract class AbstractPointer implements Pointer {
 
+    private int index;
+
     private PointsToSet pointsToSet;
 
+    protected AbstractPointer(int index) {
+        this.index = index;
+    }
+
+    @Override
+    public int getIndex() {
+        if (index == LazyIndexes.UNASSIGNED) {
+            synchronized (this) {
+                if (index == LazyIndexes.UNASSIGNED) {
+                    index = LazyIndexes.nextPointer();
+                }
+            }
+        }
+        return index;
+    }
+
     @Override
     public PointsToSet getPointsToSet() {
         return pointsToSet;
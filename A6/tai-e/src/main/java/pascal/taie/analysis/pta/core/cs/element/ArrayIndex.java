@@ -33,6 +33,11 @@ public class ArrayIndex extends AbstractPointer {
     private final CSObj array;
 
     ArrayIndex(CSObj array) {
+        this(array, LazyIndexes.UNASSIGNED);
+    }
+
+    ArrayIndex(CSObj array, int index) {
+        super(index);
         this.array = array;
     }
 
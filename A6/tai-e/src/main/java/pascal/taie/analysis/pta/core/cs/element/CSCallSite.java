@@ -25,6 +25,7 @@ package pascal.taie.analysis.pta.core.cs.element;
 import pascal.taie.analysis.graph.callgraph.Edge;
 import pascal.taie.analysis.pta.core.cs.context.Context;
 import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.util.Indexable;
 import pascal.taie.util.collection.Sets;
 
 import java.util.Collections;
@@ -33,10 +34,12 @@ import java.util.Set;
 /**
  * Represents context-sensitive call sites.
  */
-public class CSCallSite extends AbstractCSElement {
+public class CSCallSite extends AbstractCSElement implements Indexable {
 
     private final Invoke callSite;
 
+    private int index;
+
     /**
      * Context-sensitive method which contains this CS call site.
      */
@@ -47,9 +50,29 @@ public class CSCallSite extends AbstractCSElement {
      */
     private final Set<Edge<CSCallSite, CSMethod>> edges = Sets.newHybridSet();
 
-    CSCallSite(Invoke callSite, Context context) {
+    CSCallSite(Invoke callSite, Context context, int index) {
         super(context);
         this.callSite = callSite;
+        this.index = index;
+    }
+
+    /**
+     * Creates a CSCallSite whose index is assigned on first use.
+     */
+    CSCallSite(Invoke callSite, Context context) {
+        this(callSite, context, LazyIndexes.UNASSIGNED);
+    }
+
+    @Override
+    public int getIndex() {
+        if (index == LazyIndexes.UNASSIGNED) {
+            synchronized (this) {
+                if (index == LazyIndexes.UNASSIGNED) {
+                    index = LazyIndexes.nextCSCallSite();
+                }
+            }
+        }
+        return index;
     }
 
     /**
@@ -72,6 +95,10 @@ public class CSCallSite extends AbstractCSElement {
         return edges.add(edge);
     }
 
+    public boolean removeEdge(Edge<CSCallSite, CSMethod> edge) {
+        return edges.remove(edge);
+    }
+
     public Set<Edge<CSCallSite, CSMethod>> getEdges() {
         return Collections.unmodifiableSet(edges);
     }
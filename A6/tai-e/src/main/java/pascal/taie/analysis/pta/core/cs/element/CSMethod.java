@@ -26,6 +26,7 @@ import pascal.taie.analysis.graph.callgraph.Edge;
 import pascal.taie.analysis.pta.core.cs.context.Context;
 import pascal.taie.language.classes.JMethod;
 import pascal.taie.util.AbstractResultHolder;
+import pascal.taie.util.Indexable;
 import pascal.taie.util.ResultHolder;
 import pascal.taie.util.collection.Sets;
 
@@ -37,10 +38,12 @@ import java.util.function.Supplier;
 /**
  * Represents context-sensitive methods.
  */
-public class CSMethod extends AbstractCSElement {
+public class CSMethod extends AbstractCSElement implements Indexable {
 
     private final JMethod method;
 
+    private int index;
+
     /**
      * Call edges to this CS method.
      */
@@ -48,9 +51,29 @@ public class CSMethod extends AbstractCSElement {
 
     private final ResultHolder resultHolder = new AbstractResultHolder() {};
 
-    CSMethod(JMethod method, Context context) {
+    CSMethod(JMethod method, Context context, int index) {
         super(context);
         this.method = method;
+        this.index = index;
+    }
+
+    /**
+     * Creates a CSMethod whose index is assigned on first use.
+     */
+    CSMethod(JMethod method, Context context) {
+        this(method, context, LazyIndexes.UNASSIGNED);
+    }
+
+    @Override
+    public int getIndex() {
+        if (index == LazyIndexes.UNASSIGNED) {
+            synchronized (this) {
+                if (index == LazyIndexes.UNASSIGNED) {
+                    index = LazyIndexes.nextCSMethod();
+                }
+            }
+        }
+        return index;
     }
 
     /**
@@ -64,6 +87,10 @@ public class CSMethod extends AbstractCSElement {
         edges.add(edge);
     }
 
+    public boolean removeEdge(Edge<CSCallSite, CSMethod> edge) {
+        return edges.remove(edge);
+    }
+
     public Set<Edge<CSCallSite, CSMethod>> getEdges() {
         return Collections.unmodifiableSet(edges);
     }
@@ -24,17 +24,40 @@ package pascal.taie.analysis.pta.core.cs.element;
 
 import pascal.taie.analysis.pta.core.cs.context.Context;
 import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.util.Indexable;
 
 /**
  * Represents context-sensitive objects.
  */
-public class CSObj extends AbstractCSElement {
+public class CSObj extends AbstractCSElement implements Indexable {
 
     private final Obj obj;
 
-    CSObj(Obj obj, Context context) {
+    private int index;
+
+    CSObj(Obj obj, Context context, int index) {
         super(context);
         this.obj = obj;
+        this.index = index;
+    }
+
+    /**
+     * Creates a CSObj whose index is assigned on first use.
+     */
+    CSObj(Obj obj, Context context) {
+        this(obj, context, LazyIndexes.UNASSIGNED);
+    }
+
+    @Override
+    public int getIndex() {
+        if (index == LazyIndexes.UNASSIGNED) {
+            synchronized (this) {
+                if (index == LazyIndexes.UNASSIGNED) {
+                    index = LazyIndexes.nextCSObj();
+                }
+            }
+        }
+        return index;
     }
 
     /**
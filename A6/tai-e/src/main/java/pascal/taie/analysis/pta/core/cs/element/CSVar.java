@@ -36,6 +36,11 @@ public class CSVar extends AbstractPointer implements CSElement {
     private final Context context;
 
     CSVar(Var var, Context context) {
+        this(var, context, LazyIndexes.UNASSIGNED);
+    }
+
+    CSVar(Var var, Context context, int index) {
+        super(index);
         this.var = var;
         this.context = context;
     }
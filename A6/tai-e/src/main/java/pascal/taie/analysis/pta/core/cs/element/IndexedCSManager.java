@@ -0,0 +1,352 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.core.cs.element;
+
+import pascal.taie.analysis.pta.core.cs.context.Context;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.analysis.pta.pts.PointsToSetFactory;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.language.classes.JField;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.collection.LongObjectMap;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.MultiMap;
+import pascal.taie.util.collection.Sets;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * {@link CSManager} which looks up context-sensitive elements by
+ * primitive keys instead of nested hash maps of objects.
+ * <p>
+ * The lookups rely on the dense indexes of contexts
+ * (see {@link Context#getIndex()}), variables and call sites
+ * (indexes in their containing methods), fields (see {@link JField#getIndex()})
+ * and the indexes assigned to abstract objects by this manager
+ * (see {@link #getObjIndex(Obj)}). Pairs of indexes are packed
+ * into {@code long} keys of {@link LongObjectMap}s.
+ * <p>
+ * In addition, this manager assigns dense indexes to the elements it
+ * creates: all pointers share one index space, and context-sensitive
+ * objects, methods and call sites have their own index spaces.
+ * Other data structures can use these indexes, e.g., as array offsets.
+ */
+public class IndexedCSManager implements CSManager {
+
+    /**
+     * Variables and call sites of each method, as well as the
+     * context-sensitive methods.
+     */
+    private final Map<JMethod, MethodElements> methodElements = Maps.newMap();
+
+    /**
+     * Cache of the last accessed entry of {@link #methodElements}, as
+     * consecutive lookups are usually for elements of the same method.
+     */
+    private MethodElements lastMethodElements;
+
+    private final Map<Obj, Integer> objIndexes = Maps.newMap();
+
+    /**
+     * Abstract objects, indexed by their indexes.
+     */
+    private final List<Obj> objList = new ArrayList<>();
+
+    private final LongObjectMap<CSObj> objs = new LongObjectMap<>();
+
+    private final LongObjectMap<InstanceField> instanceFields = new LongObjectMap<>();
+
+    private final Map<JField, StaticField> staticFields = Maps.newMap();
+
+    /**
+     * Array index pointers indexed by the indexes of the array objects.
+     */
+    private ArrayIndex[] arrayIndexes = new ArrayIndex[64];
+
+    private final MultiMap<Var, CSVar> csVarsOf = Maps.newMultiMap();
+
+    /**
+     * All pointers, indexed by their indexes.
+     */
+    private final List<Pointer> pointers = new ArrayList<>();
+
+    private final List<CSVar> csVars = new ArrayList<>();
+
+    private final List<InstanceField> instanceFieldList = new ArrayList<>();
+
+    private final List<ArrayIndex> arrayIndexList = new ArrayList<>();
+
+    /**
+     * All context-sensitive objects, indexed by their indexes.
+     */
+    private final List<CSObj> csObjs = new ArrayList<>();
+
+    private int csMethodCounter = 0;
+
+    private int csCallSiteCounter = 0;
+
+    @Override
+    public CSVar getCSVar(Context context, Var var) {
+        LongObjectMap<CSVar> vars = getMethodElements(var.getMethod()).vars;
+        long key = LongObjectMap.key(context.getIndex(), var.getIndex());
+        CSVar csVar = vars.get(key);
+        if (csVar == null) {
+            csVar = addPointer(new CSVar(var, context, pointers.size()));
+            vars.put(key, csVar);
+            csVars.add(csVar);
+            csVarsOf.put(var, csVar);
+        }
+        return csVar;
+    }
+
+    @Override
+    public CSObj getCSObj(Context heapContext, Obj obj) {
+        return getCSObj(heapContext, getObjIndex(obj));
+    }
+
+    /**
+     * Clients that look up the context-sensitive objects of an abstract
+     * object repeatedly (e.g., the objects of allocation sites) should
+     * obtain the index of the object once, and then use
+     * {@link #getCSObj(Context, int)}, which needs no hash lookup
+     * of the object.
+     *
+     * @return the dense index of given abstract object, which is
+     * assigned when the object is given to this manager for the first time.
+     */
+    public int getObjIndex(Obj obj) {
+        Integer objIndex = objIndexes.get(obj);
+        if (objIndex == null) {
+            objIndex = objList.size();
+            objIndexes.put(obj, objIndex);
+            objList.add(obj);
+        }
+        return objIndex;
+    }
+
+    /**
+     * @return the context-sensitive object for given heap context and
+     * the abstract object of given index (see {@link #getObjIndex(Obj)}).
+     */
+    public CSObj getCSObj(Context heapContext, int objIndex) {
+        long key = LongObjectMap.key(heapContext.getIndex(), objIndex);
+        CSObj csObj = objs.get(key);
+        if (csObj == null) {
+            csObj = new CSObj(objList.get(objIndex), heapContext, csObjs.size());
+            objs.put(key, csObj);
+            csObjs.add(csObj);
+        }
+        return csObj;
+    }
+
+    @Override
+    public CSCallSite getCSCallSite(Context context, Invoke callSite) {
+        LongObjectMap<CSCallSite> callSites =
+                getMethodElements(callSite.getContainer()).callSites;
+        long key = LongObjectMap.key(context.getIndex(), callSite.getIndex());
+        CSCallSite csCallSite = callSites.get(key);
+        if (csCallSite == null) {
+            csCallSite = new CSCallSite(callSite, context, csCallSiteCounter++);
+            callSites.put(key, csCallSite);
+        }
+        return csCallSite;
+    }
+
+    @Override
+    public CSMethod getCSMethod(Context context, JMethod method) {
+        LongObjectMap<CSMethod> csMethods = getMethodElements(method).csMethods;
+        CSMethod csMethod = csMethods.get(context.getIndex());
+        if (csMethod == null) {
+            csMethod = new CSMethod(method, context, csMethodCounter++);
+            csMethods.put(context.getIndex(), csMethod);
+        }
+        return csMethod;
+    }
+
+    @Override
+    public StaticField getStaticField(JField field) {
+        StaticField staticField = staticFields.get(field);
+        if (staticField == null) {
+            staticField = addPointer(new StaticField(field, pointers.size()));
+            staticFields.put(field, staticField);
+        }
+        return staticField;
+    }
+
+    @Override
+    public InstanceField getInstanceField(CSObj base, JField field) {
+        long key = LongObjectMap.key(base.getIndex(), field.getIndex());
+        InstanceField instanceField = instanceFields.get(key);
+        if (instanceField == null) {
+            instanceField = addPointer(
+                    new InstanceField(base, field, pointers.size()));
+            instanceFields.put(key, instanceField);
+            instanceFieldList.add(instanceField);
+        }
+        return instanceField;
+    }
+
+    @Override
+    public ArrayIndex getArrayIndex(CSObj array) {
+        int i = array.getIndex();
+        if (i >= arrayIndexes.length) {
+            arrayIndexes = Arrays.copyOf(arrayIndexes,
+                    Math.max(i + 1, arrayIndexes.length << 1));
+        }
+        ArrayIndex arrayIndex = arrayIndexes[i];
+        if (arrayIndex == null) {
+            arrayIndex = addPointer(new ArrayIndex(array, pointers.size()));
+            arrayIndexes[i] = arrayIndex;
+            arrayIndexList.add(arrayIndex);
+        }
+        return arrayIndex;
+    }
+
+    /**
+     * Discards the context-sensitive variables and call sites of given
+     * method, e.g., after the IR of the method changed, so that the
+     * variables and call sites of the new IR obtain new elements instead
+     * of the ones of the old IR with the same indexes. The discarded
+     * variables are not returned by {@link #getVars()},
+     * {@link #getCSVarsOf(Var)} and {@link #getCSVars()} any more,
+     * but keep their pointer indexes.
+     */
+    public void discardVarsAndCallSites(JMethod method) {
+        MethodElements elements = methodElements.get(method);
+        if (elements == null) {
+            return;
+        }
+        Set<CSVar> discarded = Sets.newSet();
+        discarded.addAll(elements.vars.values());
+        discarded.forEach(csVar -> csVarsOf.remove(csVar.getVar(), csVar));
+        csVars.removeIf(discarded::contains);
+        elements.vars = new LongObjectMap<>();
+        elements.callSites = new LongObjectMap<>(4);
+    }
+
+    /**
+     * @return the pointer of given index.
+     */
+    public Pointer getPointer(int index) {
+        return pointers.get(index);
+    }
+
+    /**
+     * @return the number of pointers, i.e., the upper bound (exclusive)
+     * of pointer indexes.
+     */
+    public int getNumberOfPointers() {
+        return pointers.size();
+    }
+
+    /**
+     * @return the context-sensitive object of given index.
+     */
+    public CSObj getObject(int index) {
+        return csObjs.get(index);
+    }
+
+    @Override
+    public Collection<Var> getVars() {
+        return csVarsOf.keySet();
+    }
+
+    @Override
+    public Collection<CSVar> getCSVarsOf(Var var) {
+        return csVarsOf.get(var);
+    }
+
+    @Override
+    public Collection<CSVar> getCSVars() {
+        return Collections.unmodifiableList(csVars);
+    }
+
+    @Override
+    public Collection<CSObj> getObjects() {
+        return Collections.unmodifiableList(csObjs);
+    }
+
+    @Override
+    public Collection<StaticField> getStaticFields() {
+        return Collections.unmodifiableCollection(staticFields.values());
+    }
+
+    @Override
+    public Collection<InstanceField> getInstanceFields() {
+        return Collections.unmodifiableList(instanceFieldList);
+    }
+
+    @Override
+    public Collection<ArrayIndex> getArrayIndexes() {
+        return Collections.unmodifiableList(arrayIndexList);
+    }
+
+    private MethodElements getMethodElements(JMethod method) {
+        MethodElements elements = lastMethodElements;
+        if (elements == null || elements.method != method) {
+            elements = methodElements.computeIfAbsent(method, MethodElements::new);
+            lastMethodElements = elements;
+        }
+        return elements;
+    }
+
+    private <P extends Pointer> P addPointer(P pointer) {
+        pointer.setPointsToSet(PointsToSetFactory.make());
+        pointers.add(pointer);
+        return pointer;
+    }
+
+    /**
+     * Context-sensitive elements that belong to a method.
+     */
+    private static class MethodElements {
+
+        private final JMethod method;
+
+        /**
+         * Key: (context index, variable index).
+         */
+        private LongObjectMap<CSVar> vars = new LongObjectMap<>();
+
+        /**
+         * Key: (context index, call site index).
+         */
+        private LongObjectMap<CSCallSite> callSites = new LongObjectMap<>(4);
+
+        /**
+         * Key: context index.
+         */
+        private final LongObjectMap<CSMethod> csMethods = new LongObjectMap<>(4);
+
+        private MethodElements(JMethod method) {
+            this.method = method;
+        }
+    }
+}
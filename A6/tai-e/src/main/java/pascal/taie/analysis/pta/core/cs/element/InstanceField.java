@@ -35,6 +35,11 @@ public class InstanceField extends AbstractPointer {
     private final JField field;
 
     InstanceField(CSObj base, JField field) {
+        this(base, field, LazyIndexes.UNASSIGNED);
+    }
+
+    InstanceField(CSObj base, JField field, int index) {
+        super(index);
         this.base = base;
         this.field = field;
     }
@@ -0,0 +1,80 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.pta.core.cs.element;
+
+import pascal.taie.World;
+
+/**
+ * Hands out indexes to CS elements that are created without one, i.e.,
+ * by the {@link CSManager} implementations that predate
+ * {@link IndexedCSManager} (such as MapBasedCSManager). Such elements
+ * obtain their index on the first call to {@code getIndex()}.
+ * Pointers and each kind of CS elements have separate counters,
+ * the same as {@link IndexedCSManager}.
+ */
+final class LazyIndexes {
+
+    /**
+     * Index value of elements whose index has not been assigned yet.
+     */
+    static final int UNASSIGNED = -1;
+
+    private static int pointerCounter = 0;
+
+    private static int csObjCounter = 0;
+
+    private static int csMethodCounter = 0;
+
+    private static int csCallSiteCounter = 0;
+
+    static {
+        World.registerResetCallback(LazyIndexes::reset);
+    }
+
+    private LazyIndexes() {
+    }
+
+    static synchronized int nextPointer() {
+        return pointerCounter++;
+    }
+
+    static synchronized int nextCSObj() {
+        return csObjCounter++;
+    }
+
+    static synchronized int nextCSMethod() {
+        return csMethodCounter++;
+    }
+
+    static synchronized int nextCSCallSite() {
+        return csCallSiteCounter++;
+    }
+
+    private static synchronized void reset() {
+        pointerCounter = 0;
+        csObjCounter = 0;
+        csMethodCounter = 0;
+        csCallSiteCounter = 0;
+    }
+}
@@ -24,12 +24,15 @@ package pascal.taie.analysis.pta.core.cs.element;
 
 import pascal.taie.analysis.pta.pts.PointsToSet;
 import pascal.taie.language.type.Type;
+import pascal.taie.util.Indexable;
 
 /**
  * Represents all pointers (nodes) in context-sensitive
  * pointer analysis (pointer flow graph).
+ * All kinds of pointers share one index space, i.e., each pointer has
+ * a unique index among all pointers managed by a {@link CSManager}.
  */
-public interface Pointer {
+public interface Pointer extends Indexable {
 
     /**
      * @return the points-to set associated with the pointer.
@@ -33,6 +33,11 @@ public class StaticField extends AbstractPointer {
     private final JField field;
 
     StaticField(JField field) {
+        this(field, LazyIndexes.UNASSIGNED);
+    }
+
+    StaticField(JField field, int index) {
+        super(index);
         this.field = field;
     }
 
@@ -0,0 +1,84 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.core.cs.selector;
+
+import pascal.taie.analysis.pta.core.cs.context.Context;
+import pascal.taie.analysis.pta.core.cs.element.CSCallSite;
+import pascal.taie.analysis.pta.core.cs.element.CSMethod;
+import pascal.taie.analysis.pta.core.cs.element.CSObj;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.language.classes.JMethod;
+
+import java.util.Set;
+
+/**
+ * Selective context sensitivity, which applies the context sensitivity
+ * variant of a delegate selector, except for given methods and objects,
+ * which are analyzed context-insensitively.
+ *
+ * @see pascal.taie.analysis.pta.toolkit.introspective.Introspective
+ */
+public class SelectiveSelector implements ContextSelector {
+
+    private final ContextSelector delegate;
+
+    /**
+     * Methods which are analyzed context-insensitively.
+     */
+    private final Set<JMethod> ciMethods;
+
+    /**
+     * Objects which are not qualified by heap contexts.
+     */
+    private final Set<Obj> ciObjs;
+
+    public SelectiveSelector(ContextSelector delegate,
+                             Set<JMethod> ciMethods, Set<Obj> ciObjs) {
+        this.delegate = delegate;
+        this.ciMethods = ciMethods;
+        this.ciObjs = ciObjs;
+    }
+
+    @Override
+    public Context getEmptyContext() {
+        return delegate.getEmptyContext();
+    }
+
+    @Override
+    public Context selectContext(CSCallSite callSite, JMethod callee) {
+        return ciMethods.contains(callee) ? getEmptyContext() :
+                delegate.selectContext(callSite, callee);
+    }
+
+    @Override
+    public Context selectContext(CSCallSite callSite, CSObj recv, JMethod callee) {
+        return ciMethods.contains(callee) ? getEmptyContext() :
+                delegate.selectContext(callSite, recv, callee);
+    }
+
+    @Override
+    public Context selectHeapContext(CSMethod method, Obj obj) {
+        return ciObjs.contains(obj) ? getEmptyContext() :
+                delegate.selectHeapContext(method, obj);
+    }
+}
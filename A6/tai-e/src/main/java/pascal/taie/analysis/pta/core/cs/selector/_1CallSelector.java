@@ -42,15 +42,12 @@ public class _1CallSelector implements ContextSelector {
 
     @Override
     public Context selectContext(CSCallSite callSite, JMethod callee) {
-        // TODO - finish me
-
-        return ListContext.make(callSite.getCallSite());
+        return ListContext.append(callSite.getContext(), callSite.getCallSite(), 1);
     }
 
     @Override
     public Context selectContext(CSCallSite callSite, CSObj recv, JMethod callee) {
-        // TODO - finish me
-        return ListContext.make(callSite.getCallSite());
+        return ListContext.append(callSite.getContext(), callSite.getCallSite(), 1);
     }
 
     @Override
@@ -42,21 +42,12 @@ public class _1ObjSelector implements ContextSelector {
 
     @Override
     public Context selectContext(CSCallSite callSite, JMethod callee) {//在对象敏感和类型敏感中，处理静态方法调用时简单直接地使用调用者方法的上下文作为被调用方法的上下文
-        // TODO - finish me
-        int len = callSite.getContext().getLength();
-        if(len == 0){
-            return getEmptyContext();
-        }
-        else{
-            return ListContext.make(callSite.getContext().getElementAt(len-1));
-        }
-
+        return ListContext.truncate(callSite.getContext(), 1);
     }
 
     @Override
     public Context selectContext(CSCallSite callSite, CSObj recv, JMethod callee) {
-        // TODO - finish me
-        return ListContext.make(recv.getObject());
+        return ListContext.append(recv.getContext(), recv.getObject(), 1);
     }
 
     @Override
@@ -48,8 +48,8 @@ public class _1TypeSelector implements ContextSelector {
 
     @Override
     public Context selectContext(CSCallSite callSite, CSObj recv, JMethod callee) {
-        // TODO - finish me
-        return ListContext.make(recv.getObject().getContainerType());
+        return ListContext.append(recv.getContext(),
+                recv.getObject().getContainerType(), 1);
     }
 
     @Override
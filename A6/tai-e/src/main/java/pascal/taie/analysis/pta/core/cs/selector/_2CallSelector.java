@@ -43,37 +43,16 @@ public class _2CallSelector implements ContextSelector {
 
     @Override
     public Context selectContext(CSCallSite callSite, JMethod callee) {
-        // TODO - finish me
-        int len = callSite.getContext().getLength();
-        if(len == 0){
-            return ListContext.make(callSite.getCallSite());
-        }
-        else{
-            return ListContext.make(callSite.getContext().getElementAt(len-1),callSite.getCallSite());
-        }
+        return ListContext.append(callSite.getContext(), callSite.getCallSite(), 2);
     }
 
     @Override
     public Context selectContext(CSCallSite callSite, CSObj recv, JMethod callee) {
-        // TODO - finish me
-        int len = callSite.getContext().getLength();
-        if(len == 0){
-            return ListContext.make(callSite.getCallSite());
-        }
-        else{
-            return ListContext.make(callSite.getContext().getElementAt(len-1),callSite.getCallSite());
-        }
+        return ListContext.append(callSite.getContext(), callSite.getCallSite(), 2);
     }
 
     @Override
     public Context selectHeapContext(CSMethod method, Obj obj) {
-        // TODO - finish me
-        int len = method.getContext().getLength();
-        if(len == 0){
-            return getEmptyContext();
-        }
-        else {
-            return ListContext.make(method.getContext().getElementAt(len - 1));
-        }
+        return ListContext.truncate(method.getContext(), 1);
     }
 }
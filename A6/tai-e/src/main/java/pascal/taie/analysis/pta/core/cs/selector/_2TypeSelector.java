@@ -43,40 +43,17 @@ public class _2TypeSelector implements ContextSelector {
 
     @Override
     public Context selectContext(CSCallSite callSite, JMethod callee) {
-        // TODO - finish me
-        int len = callSite.getContext().getLength();
-        if(len == 0){
-            return getEmptyContext();
-        }
-        else if(len == 1){
-            return ListContext.make(callSite.getContext().getElementAt(len-1));
-        }
-        else{
-            return ListContext.make(callSite.getContext().getElementAt(len-2),callSite.getContext().getElementAt(len-1));
-        }
+        return ListContext.truncate(callSite.getContext(), 2);
     }
 
     @Override
     public Context selectContext(CSCallSite callSite, CSObj recv, JMethod callee) {
-        // TODO - finish me
-        int len = recv.getContext().getLength();
-        if(len == 0){
-            return ListContext.make(recv.getObject().getContainerType());
-        }
-        else{
-            return ListContext.make(recv.getContext().getElementAt(len-1),recv.getObject().getContainerType());
-        }
+        return ListContext.append(recv.getContext(),
+                recv.getObject().getContainerType(), 2);
     }
 
     @Override
     public Context selectHeapContext(CSMethod method, Obj obj) {
-        // TODO - finish me
-        int len = method.getContext().getLength();
-        if(len == 0){
-            return getEmptyContext();
-        }
-        else {
-            return ListContext.make(method.getContext().getElementAt(len - 1));
-        }
+        return ListContext.truncate(method.getContext(), 1);
     }
 }
@@ -0,0 +1,141 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.pta.core.heap;
+
+import pascal.taie.World;
+import pascal.taie.config.AnalysisOptions;
+import pascal.taie.ir.stmt.New;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JField;
+import pascal.taie.language.type.ArrayType;
+import pascal.taie.language.type.ClassType;
+import pascal.taie.language.type.PrimitiveType;
+import pascal.taie.language.type.ReferenceType;
+import pascal.taie.language.type.Type;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.Sets;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Heap model which merges the allocation sites of "uninteresting" types,
+ * and models other allocation sites like {@link AllocationSiteBasedModel}.
+ * <p>
+ * Allocation sites of a type are merged into one object of the type if
+ * <ul>
+ *     <li>the objects of the type cannot point to other objects, i.e.,
+ *     the type is an array of primitive type, or a class type without
+ *     instance fields of reference types (including inherited fields); or</li>
+ *     <li>the number of allocation sites of the type in the application
+ *     classes exceeds option "merge-fanout" (if it is positive).
+ *     The sites are counted up front, so that whether a type is merged
+ *     does not depend on the order in which its sites are reached.</li>
+ * </ul>
+ */
+public class TypeMergingHeapModel extends AbstractHeapModel {
+
+    /**
+     * Whether the objects of each type cannot point to other objects.
+     */
+    private final Map<Type, Boolean> pointerFree = Maps.newMap();
+
+    /**
+     * Types whose allocation sites exceed the fanout.
+     */
+    private final Set<Type> fanoutTypes;
+
+    /**
+     * The object of each allocation site.
+     */
+    private final Map<New, Obj> objs = Maps.newMap();
+
+    public TypeMergingHeapModel(AnalysisOptions options) {
+        super(options);
+        int fanout = options.get("merge-fanout") == null ? -1 :
+                options.getInt("merge-fanout");
+        this.fanoutTypes = fanout > 0 ? findFanoutTypes(fanout) : Set.of();
+    }
+
+    /**
+     * @return the types which have more allocation sites than given fanout
+     * in the application classes.
+     */
+    private static Set<Type> findFanoutTypes(int fanout) {
+        Map<Type, Integer> siteCounts = Maps.newMap();
+        World.get().getClassHierarchy()
+                .applicationClasses()
+                .flatMap(c -> c.getDeclaredMethods().stream())
+                .filter(m -> !m.isAbstract() && !m.isNative())
+                .forEach(m -> m.getIR().forEach(stmt -> {
+                    if (stmt instanceof New newStmt) {
+                        siteCounts.merge(newStmt.getRValue().getType(),
+                                1, Integer::sum);
+                    }
+                }));
+        Set<Type> types = Sets.newSet();
+        siteCounts.forEach((type, count) -> {
+            if (count > fanout) {
+                types.add(type);
+            }
+        });
+        return types;
+    }
+
+    @Override
+    protected Obj doGetObj(New allocSite) {
+        return objs.computeIfAbsent(allocSite, this::selectObj);
+    }
+
+    private Obj selectObj(New allocSite) {
+        Type type = allocSite.getRValue().getType();
+        if (pointerFree.computeIfAbsent(type, TypeMergingHeapModel::isPointerFree) ||
+                fanoutTypes.contains(type)) {
+            return getMergedObj(allocSite);
+        }
+        return getNewObj(allocSite);
+    }
+
+    private static boolean isPointerFree(Type type) {
+        if (type instanceof ArrayType arrayType) {
+            return arrayType.elementType() instanceof PrimitiveType;
+        }
+        if (type instanceof ClassType classType) {
+            JClass jclass = classType.getJClass();
+            if (jclass == null) {
+                return false; // be conservative for unknown classes
+            }
+            for (JClass c = jclass; c != null; c = c.getSuperClass()) {
+                for (JField field : c.getDeclaredFields()) {
+                    if (!field.isStatic() &&
+                            field.getType() instanceof ReferenceType) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,238 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.pta.cs;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.analysis.pta.core.cs.CSCallGraph;
+import pascal.taie.analysis.pta.core.cs.element.CSManager;
+import pascal.taie.analysis.pta.core.cs.element.CSMethod;
+import pascal.taie.analysis.pta.core.cs.element.CSObj;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.config.AnalysisOptions;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.Sets;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Time, memory and points-to set size budgets of {@link Solver}.
+ * <p>
+ * When a budget is exceeded, the analysis is not aborted. Instead, the
+ * methods and objects with the most contexts are degraded, i.e., new
+ * contexts of them are replaced by the empty context (via the sets shared
+ * with a {@link pascal.taie.analysis.pta.core.cs.selector.SelectiveSelector}),
+ * and the analysis keeps going. Since any context selection is sound,
+ * the result is still sound. After each degradation, the exceeded budget
+ * is extended by a tenth (the size budget is doubled), so that the
+ * analysis degrades progressively instead of all at once.
+ */
+public class Budget {
+
+    private static final Logger logger = LogManager.getLogger(Budget.class);
+
+    /**
+     * Key of the degradation report stored in the pointer analysis result.
+     */
+    public static final String REPORT_KEY = "degradations";
+
+    /**
+     * Time and memory are checked every CHECK_INTERVAL work-list entries.
+     */
+    private static final int CHECK_INTERVAL = 1024;
+
+    /**
+     * Portion of remaining candidates which are degraded at a time.
+     */
+    private static final int DEGRADE_DIVISOR = 4;
+
+    /**
+     * Record of a degradation.
+     *
+     * @param reason  the exceeded budget
+     * @param elapsed elapsed time (in milliseconds) when degrading
+     * @param methods methods degraded to context-insensitivity
+     * @param objs    objects degraded to heap-context-insensitivity
+     */
+    public record Degradation(String reason, long elapsed,
+                       List<JMethod> methods, List<Obj> objs) {
+    }
+
+    private final long startTime = System.currentTimeMillis();
+
+    private final long timeLimit;
+
+    private final long memoryLimit;
+
+    private long timeThreshold;
+
+    private long memoryThreshold;
+
+    private int ptsThreshold;
+
+    private int counter = 0;
+
+    private final Set<JMethod> degradedMethods = Sets.newSet();
+
+    private final Set<Obj> degradedObjs = Sets.newSet();
+
+    private final List<Degradation> degradations = new ArrayList<>();
+
+    private Budget(long timeLimit, long memoryLimit, int ptsLimit) {
+        this.timeLimit = timeLimit;
+        this.memoryLimit = memoryLimit;
+        this.timeThreshold = timeLimit;
+        this.memoryThreshold = memoryLimit;
+        this.ptsThreshold = ptsLimit;
+    }
+
+    /**
+     * @return the budget given by options "time-limit" (in seconds),
+     * "memory-limit" (in MB) and "pts-limit" (maximum size of a points-to
+     * set), or null if none of them is given (i.e., non-positive).
+     */
+    static Budget of(AnalysisOptions options) {
+        long timeLimit = getLimit(options, "time-limit") * 1000L;
+        long memoryLimit = getLimit(options, "memory-limit") * 1024L * 1024L;
+        int ptsLimit = getLimit(options, "pts-limit");
+        if (timeLimit <= 0 && memoryLimit <= 0 && ptsLimit <= 0) {
+            return null;
+        }
+        return new Budget(timeLimit, memoryLimit, ptsLimit);
+    }
+
+    private static int getLimit(AnalysisOptions options, String key) {
+        return options.get(key) == null ? -1 : options.getInt(key);
+    }
+
+    /**
+     * @return methods degraded to context-insensitivity.
+     * The returned set is updated by this budget.
+     */
+    Set<JMethod> getDegradedMethods() {
+        return degradedMethods;
+    }
+
+    /**
+     * @return objects degraded to heap-context-insensitivity.
+     * The returned set is updated by this budget.
+     */
+    Set<Obj> getDegradedObjs() {
+        return degradedObjs;
+    }
+
+    /**
+     * @return the degradations performed so far.
+     */
+    List<Degradation> getDegradations() {
+        return Collections.unmodifiableList(degradations);
+    }
+
+    /**
+     * Called for every processed work-list entry.
+     *
+     * @return the exceeded time or memory budget, or null if
+     * the budgets are not exceeded.
+     */
+    String checkResources() {
+        if (++counter < CHECK_INTERVAL) {
+            return null;
+        }
+        counter = 0;
+        if (timeLimit > 0) {
+            long elapsed = System.currentTimeMillis() - startTime;
+            if (elapsed > timeThreshold) {
+                timeThreshold = elapsed + timeLimit / 10;
+                return "time-limit";
+            }
+        }
+        if (memoryLimit > 0) {
+            Runtime rt = Runtime.getRuntime();
+            long used = rt.totalMemory() - rt.freeMemory();
+            if (used > memoryThreshold) {
+                memoryThreshold = used + memoryLimit / 10;
+                return "memory-limit";
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return true if given size exceeds the points-to set budget.
+     */
+    boolean checkPointsToSetSize(int size) {
+        if (ptsThreshold > 0 && size > ptsThreshold) {
+            ptsThreshold = ptsThreshold > Integer.MAX_VALUE / 2 ?
+                    Integer.MAX_VALUE : ptsThreshold * 2;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Degrades the methods and objects with the most contexts.
+     */
+    void degrade(String reason, CSCallGraph callGraph, CSManager csManager) {
+        List<JMethod> methods = selectHottest(callGraph.reachableMethods(),
+                CSMethod::getMethod, degradedMethods);
+        List<Obj> objs = selectHottest(csManager.getObjects().stream(),
+                CSObj::getObject, degradedObjs);
+        degradedMethods.addAll(methods);
+        degradedObjs.addAll(objs);
+        Degradation degradation = new Degradation(reason,
+                System.currentTimeMillis() - startTime, methods, objs);
+        degradations.add(degradation);
+        logger.info("{} exceeded after {} ms, degrading {} methods and {} objects",
+                reason, degradation.elapsed(), methods.size(), objs.size());
+    }
+
+    /**
+     * @return the elements that are not degraded yet, and have the most
+     * contexts among such elements.
+     */
+    private static <E, T> List<T> selectHottest(
+            Stream<E> csElems, Function<E, T> getElem, Set<T> degraded) {
+        Map<T, Integer> counts = Maps.newMap();
+        csElems.map(getElem)
+                .filter(e -> !degraded.contains(e))
+                .forEach(e -> counts.merge(e, 1, Integer::sum));
+        counts.values().removeIf(count -> count <= 1);
+        int n = (counts.size() + DEGRADE_DIVISOR - 1) / DEGRADE_DIVISOR;
+        return counts.entrySet()
+                .stream()
+                .sorted(Map.Entry.<T, Integer>comparingByValue(Comparator.reverseOrder())
+                        .thenComparing(e -> e.getKey().toString()))
+                .limit(n)
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+}
@@ -26,8 +26,12 @@ import pascal.taie.analysis.ProgramAnalysis;
 import pascal.taie.analysis.pta.PointerAnalysisResult;
 import pascal.taie.analysis.pta.core.cs.selector.CISelector;
 import pascal.taie.analysis.pta.core.cs.selector.ContextSelector;
+import pascal.taie.analysis.pta.core.cs.selector.SelectiveSelector;
 import pascal.taie.analysis.pta.core.heap.AllocationSiteBasedModel;
+import pascal.taie.analysis.pta.core.heap.HeapModel;
+import pascal.taie.analysis.pta.core.heap.TypeMergingHeapModel;
 import pascal.taie.analysis.pta.plugin.ResultProcessor;
+import pascal.taie.analysis.pta.toolkit.introspective.Introspective;
 import pascal.taie.config.AnalysisConfig;
 import pascal.taie.config.AnalysisOptions;
 import pascal.taie.config.ConfigException;
@@ -35,6 +39,9 @@ import pascal.taie.util.Strings;
 
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
 
 /**
  * Context-sensitive pointer analysis.
@@ -43,6 +50,12 @@ public class CSPTA extends ProgramAnalysis {
 
     public static final String ID = "cspta";
 
+    /**
+     * Key of the flag stored in the results that are loaded from
+     * the cache given by option "cache-dir".
+     */
+    public static final String FROM_CACHE = "from-cache";
+
     public CSPTA(AnalysisConfig config) {
         super(config);
     }
@@ -50,15 +63,92 @@ public class CSPTA extends ProgramAnalysis {
     @Override
     public PointerAnalysisResult analyze() {
         AnalysisOptions options = getOptions();
-        Solver solver = new Solver(options,
-                new AllocationSiteBasedModel(options),
-                getContextSelector(options.getString("cs")));
-        solver.solve();
-        PointerAnalysisResult result = solver.getResult();
+        HeapModel heapModel = makeHeapModel(options);
+        String cacheDir = options.getString("cache-dir");
+        ResultCache cache = cacheDir == null ? null :
+                new ResultCache(Path.of(cacheDir), options, heapModel);
+        PointerAnalysisResult result = cache == null ? null : cache.load();
+        if (result == null) {
+            result = solve(options, heapModel);
+            if (cache != null) {
+                cache.store(result);
+            }
+        }
         ResultProcessor.process(options, result);
         return result;
     }
 
+    private static PointerAnalysisResult solve(
+            AnalysisOptions options, HeapModel heapModel) {
+        Solver solver = makeSolver(options, heapModel);
+        solver.solve();
+        return solver.getResult();
+    }
+
+    /**
+     * @return the heap model specified by option "heap-model".
+     */
+    static HeapModel makeHeapModel(AnalysisOptions options) {
+        String heapModel = options.getString("heap-model");
+        if (heapModel == null || heapModel.equals("allocation-site")) {
+            return new AllocationSiteBasedModel(options);
+        } else if (heapModel.equals("type-merging")) {
+            return new TypeMergingHeapModel(options);
+        } else {
+            throw new ConfigException("Unexpected heap model: " + heapModel);
+        }
+    }
+
+    /**
+     * @return a solver configured by given options.
+     */
+    static Solver makeSolver(AnalysisOptions options, HeapModel heapModel) {
+        ContextSelector selector = getContextSelector(options.getString("cs"));
+        if ("selective".equals(options.getString("advanced"))) {
+            selector = makeSelectiveSelector(options, heapModel, selector);
+        }
+        return new Solver(options, heapModel, selector);
+    }
+
+    /**
+     * Runs a context-insensitive pre-analysis, and based on its result,
+     * restricts the given context selector to the methods and objects
+     * where context sensitivity is worthwhile. The pre-analysis shares
+     * the heap model with the main analysis, so that both analyses
+     * use the same abstract objects.
+     */
+    private static ContextSelector makeSelectiveSelector(
+            AnalysisOptions options, HeapModel heapModel,
+            ContextSelector selector) {
+        Solver preSolver = new Solver(
+                makePreAnalysisOptions(), heapModel, new CISelector());
+        preSolver.solve();
+        Introspective introspective = Introspective.of(
+                preSolver.getResult(), options);
+        return new SelectiveSelector(selector,
+                introspective.getCIMethods(), introspective.getCIObjects());
+    }
+
+    /**
+     * @return options of the context-insensitive pre-analysis.
+     * Budgets, type filtering, points-to set sharing, off-heap points-to
+     * sets and caching are turned off, as the pre-analysis must not be
+     * degraded, and its points-to sets are only read by
+     * {@link Introspective}.
+     */
+    private static AnalysisOptions makePreAnalysisOptions() {
+        Map<String, Object> options = new HashMap<>();
+        options.put("cs", "ci");
+        options.put("type-filter", false);
+        options.put("pts-sharing", null);
+        options.put("off-heap-pts", false);
+        options.put("cache-dir", null);
+        options.put("time-limit", -1);
+        options.put("memory-limit", -1);
+        options.put("pts-limit", -1);
+        return new AnalysisOptions(options);
+    }
+
     private static ContextSelector getContextSelector(String cs) {
         if (cs.equals("ci")) {
             return new CISelector();
@@ -0,0 +1,71 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.pta.cs;
+
+import pascal.taie.analysis.pta.PointerAnalysisResult;
+import pascal.taie.config.AnalysisOptions;
+import pascal.taie.language.classes.JMethod;
+
+import java.util.Collection;
+
+/**
+ * Context-sensitive pointer analysis which keeps its solved state,
+ * so that the result can be updated incrementally when some methods
+ * of the program change, instead of solving from scratch.
+ *
+ * @see Solver#update(Collection, Collection)
+ */
+public class IncrementalCSPTA {
+
+    private final Solver solver;
+
+    /**
+     * Solves the program with given options (same as the options of
+     * {@link CSPTA}, except that points-to sets cannot be stored off heap).
+     */
+    public IncrementalCSPTA(AnalysisOptions options) {
+        solver = CSPTA.makeSolver(options, CSPTA.makeHeapModel(options));
+        solver.solve();
+    }
+
+    /**
+     * @return the result of current solved state.
+     */
+    public PointerAnalysisResult getResult() {
+        return solver.getResult();
+    }
+
+    /**
+     * Updates the solved state after some methods changed or were removed.
+     *
+     * @param changed methods whose IR changed
+     * @param removed methods that were removed from the program
+     * @return the updated result.
+     */
+    public PointerAnalysisResult update(Collection<JMethod> changed,
+                                        Collection<JMethod> removed) {
+        solver.update(changed, removed);
+        return solver.getResult();
+    }
+}
@@ -0,0 +1,170 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.pta.cs;
+
+import pascal.taie.analysis.pta.core.cs.element.IndexedCSManager;
+import pascal.taie.analysis.pta.core.heap.HeapModel;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Copy;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.LoadField;
+import pascal.taie.ir.stmt.New;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.ir.stmt.StoreField;
+import pascal.taie.language.classes.JField;
+import pascal.taie.language.classes.JMethod;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Context-independent summary of the statements of a method which
+ * are processed when the method becomes reachable, i.e., {@link New},
+ * {@link Copy}, static {@link LoadField}/{@link StoreField} and
+ * static {@link Invoke}.
+ * <p>
+ * A template is compiled once per method, with abstract objects and
+ * field/method references already resolved, and then instantiated
+ * for every context in which the method is reachable. The operands
+ * of each kind of statements are stored in parallel arrays.
+ */
+final class MethodTemplate {
+
+    /**
+     * The IR from which this template is compiled. It is kept as the IR
+     * of the method may change afterwards (see {@link Solver#update}).
+     */
+    final IR ir;
+
+    /**
+     * x = new T(): newVars[i] = new newObjs[i].
+     */
+    final Var[] newVars;
+
+    final Obj[] newObjs;
+
+    /**
+     * Indexes of newObjs in the {@link IndexedCSManager} of the solver.
+     */
+    final int[] newObjIndexes;
+
+    /**
+     * x = y: copyTargets[i] = copySources[i].
+     */
+    final Var[] copyTargets;
+
+    final Var[] copySources;
+
+    /**
+     * y = T.f: staticLoadTargets[i] = staticLoadFields[i].
+     */
+    final Var[] staticLoadTargets;
+
+    final JField[] staticLoadFields;
+
+    /**
+     * T.f = y: staticStoreFields[i] = staticStoreSources[i].
+     */
+    final JField[] staticStoreFields;
+
+    final Var[] staticStoreSources;
+
+    /**
+     * Static call sites and their callees.
+     */
+    final Invoke[] staticInvokes;
+
+    final JMethod[] staticCallees;
+
+    private MethodTemplate(IR ir, List<Var> newVars, List<Obj> newObjs,
+                           int[] newObjIndexes,
+                           List<Var> copyTargets, List<Var> copySources,
+                           List<Var> staticLoadTargets, List<JField> staticLoadFields,
+                           List<JField> staticStoreFields, List<Var> staticStoreSources,
+                           List<Invoke> staticInvokes, List<JMethod> staticCallees) {
+        this.ir = ir;
+        this.newVars = newVars.toArray(new Var[0]);
+        this.newObjs = newObjs.toArray(new Obj[0]);
+        this.newObjIndexes = newObjIndexes;
+        this.copyTargets = copyTargets.toArray(new Var[0]);
+        this.copySources = copySources.toArray(new Var[0]);
+        this.staticLoadTargets = staticLoadTargets.toArray(new Var[0]);
+        this.staticLoadFields = staticLoadFields.toArray(new JField[0]);
+        this.staticStoreFields = staticStoreFields.toArray(new JField[0]);
+        this.staticStoreSources = staticStoreSources.toArray(new Var[0]);
+        this.staticInvokes = staticInvokes.toArray(new Invoke[0]);
+        this.staticCallees = staticCallees.toArray(new JMethod[0]);
+    }
+
+    /**
+     * Compiles the template of given method.
+     * Static calls whose callees cannot be resolved are ignored.
+     * The abstract objects are indexed by csManager.
+     */
+    static MethodTemplate compile(JMethod method, HeapModel heapModel,
+                                  IndexedCSManager csManager) {
+        List<Var> newVars = new ArrayList<>();
+        List<Obj> newObjs = new ArrayList<>();
+        List<Var> copyTargets = new ArrayList<>();
+        List<Var> copySources = new ArrayList<>();
+        List<Var> staticLoadTargets = new ArrayList<>();
+        List<JField> staticLoadFields = new ArrayList<>();
+        List<JField> staticStoreFields = new ArrayList<>();
+        List<Var> staticStoreSources = new ArrayList<>();
+        List<Invoke> staticInvokes = new ArrayList<>();
+        List<JMethod> staticCallees = new ArrayList<>();
+        IR ir = method.getIR();
+        for (Stmt stmt : ir) {
+            if (stmt instanceof New newStmt) {
+                newVars.add(newStmt.getLValue());
+                newObjs.add(heapModel.getObj(newStmt));
+            } else if (stmt instanceof Copy copy) {
+                copyTargets.add(copy.getLValue());
+                copySources.add(copy.getRValue());
+            } else if (stmt instanceof LoadField load && load.isStatic()) {
+                staticLoadTargets.add(load.getLValue());
+                staticLoadFields.add(load.getFieldRef().resolve());
+            } else if (stmt instanceof StoreField store && store.isStatic()) {
+                staticStoreFields.add(store.getFieldRef().resolve());
+                staticStoreSources.add(store.getRValue());
+            } else if (stmt instanceof Invoke invoke && invoke.isStatic()) {
+                JMethod callee = invoke.getMethodRef().resolveNullable();
+                if (callee != null) {
+                    staticInvokes.add(invoke);
+                    staticCallees.add(callee);
+                }
+            }
+        }
+        int[] newObjIndexes = newObjs.stream()
+                .mapToInt(csManager::getObjIndex)
+                .toArray();
+        return new MethodTemplate(ir, newVars, newObjs, newObjIndexes,
+                copyTargets, copySources,
+                staticLoadTargets, staticLoadFields,
+                staticStoreFields, staticStoreSources,
+                staticInvokes, staticCallees);
+    }
+}
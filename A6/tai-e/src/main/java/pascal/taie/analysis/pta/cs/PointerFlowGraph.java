@@ -48,6 +48,23 @@ class PointerFlowGraph {
         return successors.put(source, target);
     }
 
+    /**
+     * Removes an edge (source -> target) from this PFG.
+     *
+     * @return true if this PFG changed as a result of the call,
+     * otherwise false.
+     */
+    boolean removeEdge(Pointer source, Pointer target) {
+        return successors.remove(source, target);
+    }
+
+    /**
+     * @return all pointers that have successors in the PFG.
+     */
+    Set<Pointer> getSources() {
+        return successors.keySet();
+    }
+
     /**
      * @return successors of given pointer in the PFG.
      */
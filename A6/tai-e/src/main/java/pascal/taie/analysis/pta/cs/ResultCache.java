@@ -0,0 +1,538 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.pta.cs;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.World;
+import pascal.taie.analysis.graph.callgraph.CallKind;
+import pascal.taie.analysis.graph.callgraph.Edge;
+import pascal.taie.analysis.pta.PointerAnalysisResult;
+import pascal.taie.analysis.pta.PointerAnalysisResultImpl;
+import pascal.taie.analysis.pta.core.cs.CSCallGraph;
+import pascal.taie.analysis.pta.core.cs.context.Context;
+import pascal.taie.analysis.pta.core.cs.context.ListContext;
+import pascal.taie.analysis.pta.core.cs.element.CSCallSite;
+import pascal.taie.analysis.pta.core.cs.element.CSManager;
+import pascal.taie.analysis.pta.core.cs.element.CSMethod;
+import pascal.taie.analysis.pta.core.cs.element.CSObj;
+import pascal.taie.analysis.pta.core.cs.element.IndexedCSManager;
+import pascal.taie.analysis.pta.core.cs.element.Pointer;
+import pascal.taie.analysis.pta.core.heap.HeapModel;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.analysis.pta.pts.PointsToSet;
+import pascal.taie.config.AnalysisOptions;
+import pascal.taie.config.Options;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.New;
+import pascal.taie.language.classes.ClassHierarchy;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.type.Type;
+import pascal.taie.util.collection.Maps;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Persistent cache of the results of {@link CSPTA}.
+ * <p>
+ * Each result is stored in a file named by the fingerprint of the inputs
+ * of the analysis, i.e., the class path (including the sizes and
+ * modification times of the files on it), the main class and the
+ * options that affect the result. The file is a gzipped binary encoding
+ * of the CS call graph and the points-to sets, in which program elements
+ * are referred to by signatures and IR indexes, and abstract objects are
+ * referred to by their allocation sites. On a cache hit, the elements are
+ * recreated via {@link IndexedCSManager} and the heap model of current run,
+ * the degradation report of {@link Budget} is restored, and the points-to
+ * sets are stored as specified by the options of current run
+ * (see {@link Solver#storePointsToSets}).
+ */
+class ResultCache {
+
+    private static final Logger logger = LogManager.getLogger(ResultCache.class);
+
+    private static final int MAGIC = 0x7a1e_c5a0;
+
+    private static final int VERSION = 2;
+
+    /**
+     * Options that affect the result of pointer analysis, or how the
+     * heap model and the solver create and store its elements.
+     */
+    private static final List<String> RESULT_OPTIONS = List.of(
+            "cs", "advanced", "type-filter",
+            "max-in-flow", "max-out-flow", "max-volume", "max-pointed-by-vars",
+            "pts-sharing", "off-heap-pts",
+            "time-limit", "memory-limit", "pts-limit",
+            "heap-model", "merge-fanout",
+            "merge-string-constants", "merge-string-objects",
+            "merge-string-builders", "merge-exception-objects");
+
+    private static final byte OBJ = 0, INVOKE = 1, TYPE = 2;
+
+    private final Path file;
+
+    private final AnalysisOptions options;
+
+    private final HeapModel heapModel;
+
+    ResultCache(Path dir, AnalysisOptions options, HeapModel heapModel) {
+        this.file = dir.resolve("cspta-" + fingerprint(options) + ".bin.gz");
+        this.options = options;
+        this.heapModel = heapModel;
+    }
+
+    /**
+     * @return the cached result, or null if there is no usable cached result.
+     */
+    PointerAnalysisResult load() {
+        if (!Files.exists(file)) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                new GZIPInputStream(Files.newInputStream(file))))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                return null;
+            }
+            PointerAnalysisResult result = new Decoder(in).decode();
+            result.storeResult(CSPTA.FROM_CACHE, true);
+            logger.info("Loaded pointer analysis result from {}", file);
+            return result;
+        } catch (IOException | RuntimeException e) {
+            // e.g., the program changed in a way that the fingerprint misses
+            logger.warn("Failed to load pointer analysis result from {}: {}",
+                    file, e.toString());
+            return null;
+        }
+    }
+
+    /**
+     * Stores given result to the cache. Failures are logged and ignored,
+     * as caching is an optimization.
+     */
+    void store(PointerAnalysisResult result) {
+        try {
+            Files.createDirectories(file.getParent());
+            Path tmp = Files.createTempFile(file.getParent(), "cspta", ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                    new GZIPOutputStream(Files.newOutputStream(tmp))))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                new Encoder(out).encode(result);
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+            logger.info("Stored pointer analysis result to {}", file);
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Failed to store pointer analysis result to {}: {}",
+                    file, e.toString());
+        }
+    }
+
+    private static String fingerprint(AnalysisOptions options) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            Options worldOptions = World.get().getOptions();
+            StringBuilder input = new StringBuilder();
+            input.append(worldOptions.getMainClass()).append('\n')
+                    .append(worldOptions.getJavaVersion()).append('\n')
+                    .append(worldOptions.isPrependJVM()).append('\n')
+                    .append(worldOptions.getClassPath()).append('\n');
+            RESULT_OPTIONS.forEach(key ->
+                    input.append(key).append('=').append(options.get(key)).append('\n'));
+            String classPath = worldOptions.getClassPath();
+            if (classPath != null) {
+                for (String entry : classPath.split(File.pathSeparator)) {
+                    appendFiles(input, Path.of(entry));
+                }
+            }
+            return HexFormat.of().formatHex(digest.digest(
+                    input.toString().getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException | IOException e) {
+            // every JVM supports SHA-256; a class path which cannot be
+            // read results in a fingerprint that is never hit again
+            return "uncacheable-" + System.nanoTime();
+        }
+    }
+
+    /**
+     * Appends paths, sizes and modification times of the files
+     * at given path (recursively if it is a directory).
+     */
+    private static void appendFiles(StringBuilder input, Path path)
+            throws IOException {
+        if (!Files.exists(path)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(path)) {
+            for (Path p : paths.filter(Files::isRegularFile).sorted().toList()) {
+                input.append(p).append(':')
+                        .append(Files.size(p)).append(':')
+                        .append(Files.getLastModifiedTime(p).toMillis())
+                        .append('\n');
+            }
+        }
+    }
+
+    /**
+     * Writes a result. Each kind of elements is written as a table,
+     * and later tables refer to the entries of earlier tables by indexes.
+     */
+    private class Encoder {
+
+        private final DataOutputStream out;
+
+        private final Map<JMethod, Integer> methods = new LinkedHashMap<>();
+
+        private final Map<Obj, Integer> objs = new LinkedHashMap<>();
+
+        private final Map<Context, Integer> contexts = new LinkedHashMap<>();
+
+        private final Map<CSObj, Integer> csObjs = new LinkedHashMap<>();
+
+        private final Map<CSMethod, Integer> csMethods = new LinkedHashMap<>();
+
+        /**
+         * Allocation sites of the abstract objects.
+         */
+        private final Map<Obj, New> allocations = Maps.newMap();
+
+        private Encoder(DataOutputStream out) {
+            this.out = out;
+        }
+
+        private void encode(PointerAnalysisResult result) throws IOException {
+            CSCallGraph callGraph = (CSCallGraph) result.getCSCallGraph();
+            // abstract objects are identified by their allocation sites
+            callGraph.reachableMethods()
+                    .map(CSMethod::getMethod)
+                    .distinct()
+                    .forEach(m -> m.getIR().forEach(stmt -> {
+                        if (stmt instanceof New newStmt) {
+                            allocations.putIfAbsent(heapModel.getObj(newStmt), newStmt);
+                        }
+                    }));
+            result.getCSObjects().forEach(this::indexOf);
+            callGraph.reachableMethods().forEach(this::indexOf);
+            result.getCSVars().forEach(csVar -> {
+                indexOf(csVar.getVar().getMethod());
+                indexOf(csVar.getContext());
+            });
+            List<Budget.Degradation> degradations =
+                    result.getResult(Budget.REPORT_KEY, List.of());
+            degradations.forEach(d -> {
+                d.methods().forEach(this::indexOf);
+                d.objs().forEach(this::indexOf);
+            });
+            // write tables of program elements
+            writeTable(methods.keySet(), m -> out.writeUTF(m.getSignature()));
+            writeTable(objs.keySet(), obj -> {
+                New newStmt = allocations.get(obj);
+                if (newStmt == null) {
+                    throw new IOException("Unknown allocation site of " + obj);
+                }
+                out.writeInt(methods.get(newStmt.getContainer()));
+                out.writeInt(newStmt.getIndex());
+            });
+            writeTable(contexts.keySet(), this::writeContext);
+            writeTable(csObjs.keySet(), csObj -> {
+                out.writeInt(contexts.get(csObj.getContext()));
+                out.writeInt(objs.get(csObj.getObject()));
+            });
+            writeTable(csMethods.keySet(), csMethod -> {
+                out.writeInt(contexts.get(csMethod.getContext()));
+                out.writeInt(methods.get(csMethod.getMethod()));
+            });
+            // write call graph
+            writeTable(callGraph.entryMethods().toList(),
+                    csMethod -> out.writeInt(csMethods.get(csMethod)));
+            writeTable(callGraph.edges().toList(), edge -> {
+                CSCallSite csCallSite = edge.getCallSite();
+                out.writeInt(csMethods.get(csCallSite.getContainer()));
+                out.writeInt(csCallSite.getCallSite().getIndex());
+                out.writeInt(csMethods.get(edge.getCallee()));
+                out.writeByte(edge.getKind().ordinal());
+            });
+            // write points-to sets
+            writeTable(result.getCSVars(), csVar -> {
+                Var var = csVar.getVar();
+                out.writeInt(contexts.get(csVar.getContext()));
+                out.writeInt(methods.get(var.getMethod()));
+                out.writeInt(var.getIndex());
+                writePointsToSet(csVar);
+            });
+            writeTable(result.getStaticFields(), staticField -> {
+                out.writeUTF(staticField.getField().getSignature());
+                writePointsToSet(staticField);
+            });
+            writeTable(result.getInstanceFields(), instanceField -> {
+                out.writeInt(csObjs.get(instanceField.getBase()));
+                out.writeUTF(instanceField.getField().getSignature());
+                writePointsToSet(instanceField);
+            });
+            writeTable(result.getArrayIndexes(), arrayIndex -> {
+                out.writeInt(csObjs.get(arrayIndex.getArray()));
+                writePointsToSet(arrayIndex);
+            });
+            // write degradation report
+            writeTable(degradations, d -> {
+                out.writeUTF(d.reason());
+                out.writeLong(d.elapsed());
+                writeTable(d.methods(), m -> out.writeInt(methods.get(m)));
+                writeTable(d.objs(), obj -> out.writeInt(objs.get(obj)));
+            });
+        }
+
+        private void writeContext(Context context) throws IOException {
+            out.writeInt(context.getLength());
+            for (int i = 0; i < context.getLength(); ++i) {
+                Object elem = context.getElementAt(i);
+                if (elem instanceof Obj obj) {
+                    out.writeByte(OBJ);
+                    out.writeInt(objs.get(obj));
+                } else if (elem instanceof Invoke invoke) {
+                    out.writeByte(INVOKE);
+                    out.writeInt(methods.get(invoke.getContainer()));
+                    out.writeInt(invoke.getIndex());
+                } else if (elem instanceof Type type) {
+                    out.writeByte(TYPE);
+                    out.writeUTF(type.getName());
+                } else {
+                    throw new IOException("Unsupported context element: " + elem);
+                }
+            }
+        }
+
+        private void writePointsToSet(Pointer pointer) throws IOException {
+            PointsToSet pts = pointer.getPointsToSet();
+            out.writeInt(pts.size());
+            for (CSObj csObj : pts) {
+                out.writeInt(csObjs.get(csObj));
+            }
+        }
+
+        private void indexOf(JMethod method) {
+            indexOf(methods, method);
+        }
+
+        private void indexOf(CSObj csObj) {
+            indexOf(csObj.getObject());
+            indexOf(csObj.getContext());
+            indexOf(csObjs, csObj);
+        }
+
+        private void indexOf(CSMethod csMethod) {
+            indexOf(csMethod.getMethod());
+            indexOf(csMethod.getContext());
+            indexOf(csMethods, csMethod);
+        }
+
+        private void indexOf(Obj obj) {
+            New newStmt = allocations.get(obj);
+            if (newStmt != null) {
+                indexOf(newStmt.getContainer());
+            }
+            indexOf(objs, obj);
+        }
+
+        /**
+         * Indexes given context and the elements in it. Context elements
+         * are indexed before the context, so that they can be decoded
+         * before the context.
+         */
+        private void indexOf(Context context) {
+            for (int i = 0; i < context.getLength(); ++i) {
+                Object elem = context.getElementAt(i);
+                if (elem instanceof Obj obj) {
+                    indexOf(obj);
+                } else if (elem instanceof Invoke invoke) {
+                    indexOf(invoke.getContainer());
+                }
+            }
+            indexOf(contexts, context);
+        }
+
+        private <T> int indexOf(Map<T, Integer> indexes, T elem) {
+            return indexes.computeIfAbsent(elem, unused -> indexes.size());
+        }
+
+        private <T> void writeTable(Iterable<T> elems, ElemWriter<T> writer)
+                throws IOException {
+            List<T> list = new ArrayList<>();
+            elems.forEach(list::add);
+            out.writeInt(list.size());
+            for (T elem : list) {
+                writer.write(elem);
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface ElemWriter<T> {
+        void write(T elem) throws IOException;
+    }
+
+    /**
+     * Reads a result written by {@link Encoder}.
+     */
+    private class Decoder {
+
+        private final DataInputStream in;
+
+        private final ClassHierarchy hierarchy = World.get().getClassHierarchy();
+
+        private final CSManager csManager = new IndexedCSManager();
+
+        private Decoder(DataInputStream in) {
+            this.in = in;
+        }
+
+        private PointerAnalysisResult decode() throws IOException {
+            JMethod[] methods = new JMethod[in.readInt()];
+            for (int i = 0; i < methods.length; ++i) {
+                methods[i] = require(hierarchy.getMethod(in.readUTF()));
+            }
+            Obj[] objs = new Obj[in.readInt()];
+            for (int i = 0; i < objs.length; ++i) {
+                JMethod container = methods[in.readInt()];
+                objs[i] = heapModel.getObj(
+                        (New) container.getIR().getStmt(in.readInt()));
+            }
+            Context[] contexts = new Context[in.readInt()];
+            for (int i = 0; i < contexts.length; ++i) {
+                Object[] elems = new Object[in.readInt()];
+                for (int j = 0; j < elems.length; ++j) {
+                    elems[j] = switch (in.readByte()) {
+                        case OBJ -> objs[in.readInt()];
+                        case INVOKE -> methods[in.readInt()]
+                                .getIR().getStmt(in.readInt());
+                        case TYPE -> require(World.get().getTypeSystem()
+                                .getType(in.readUTF()));
+                        default -> throw new IOException("Corrupted cache file");
+                    };
+                }
+                contexts[i] = ListContext.make(elems);
+            }
+            CSObj[] csObjs = new CSObj[in.readInt()];
+            for (int i = 0; i < csObjs.length; ++i) {
+                csObjs[i] = csManager.getCSObj(
+                        contexts[in.readInt()], objs[in.readInt()]);
+            }
+            CSMethod[] csMethods = new CSMethod[in.readInt()];
+            CSCallGraph callGraph = new CSCallGraph(csManager);
+            for (int i = 0; i < csMethods.length; ++i) {
+                csMethods[i] = csManager.getCSMethod(
+                        contexts[in.readInt()], methods[in.readInt()]);
+                callGraph.addReachableMethod(csMethods[i]);
+            }
+            for (int i = in.readInt(); i > 0; --i) {
+                callGraph.addEntryMethod(csMethods[in.readInt()]);
+            }
+            CallKind[] kinds = CallKind.values();
+            for (int i = in.readInt(); i > 0; --i) {
+                CSMethod caller = csMethods[in.readInt()];
+                Invoke callSite = (Invoke) caller.getMethod()
+                        .getIR().getStmt(in.readInt());
+                CSCallSite csCallSite = csManager.getCSCallSite(
+                        caller.getContext(), callSite);
+                CSMethod callee = csMethods[in.readInt()];
+                callGraph.addEdge(new Edge<>(kinds[in.readByte()], csCallSite, callee));
+            }
+            for (int i = in.readInt(); i > 0; --i) {
+                Context context = contexts[in.readInt()];
+                Var var = methods[in.readInt()].getIR().getVar(in.readInt());
+                readPointsToSet(csManager.getCSVar(context, var), csObjs);
+            }
+            for (int i = in.readInt(); i > 0; --i) {
+                readPointsToSet(csManager.getStaticField(
+                        require(hierarchy.getField(in.readUTF()))), csObjs);
+            }
+            for (int i = in.readInt(); i > 0; --i) {
+                CSObj base = csObjs[in.readInt()];
+                readPointsToSet(csManager.getInstanceField(base,
+                        require(hierarchy.getField(in.readUTF()))), csObjs);
+            }
+            for (int i = in.readInt(); i > 0; --i) {
+                readPointsToSet(csManager.getArrayIndex(csObjs[in.readInt()]), csObjs);
+            }
+            List<Budget.Degradation> degradations = new ArrayList<>();
+            for (int i = in.readInt(); i > 0; --i) {
+                String reason = in.readUTF();
+                long elapsed = in.readLong();
+                List<JMethod> degradedMethods = new ArrayList<>();
+                for (int j = in.readInt(); j > 0; --j) {
+                    degradedMethods.add(methods[in.readInt()]);
+                }
+                List<Obj> degradedObjs = new ArrayList<>();
+                for (int j = in.readInt(); j > 0; --j) {
+                    degradedObjs.add(objs[in.readInt()]);
+                }
+                degradations.add(new Budget.Degradation(reason, elapsed,
+                        degradedMethods, degradedObjs));
+            }
+            Solver.storePointsToSets(options, csManager);
+            PointerAnalysisResult result =
+                    new PointerAnalysisResultImpl(csManager, callGraph);
+            if (!degradations.isEmpty()) {
+                result.storeResult(Budget.REPORT_KEY, degradations);
+            }
+            return result;
+        }
+
+        private void readPointsToSet(Pointer pointer, CSObj[] csObjs)
+                throws IOException {
+            PointsToSet pts = pointer.getPointsToSet();
+            for (int i = in.readInt(); i > 0; --i) {
+                pts.addObject(csObjs[in.readInt()]);
+            }
+        }
+
+        private static <T> T require(T elem) throws IOException {
+            if (elem == null) {
+                throw new IOException("Program element not found");
+            }
+            return elem;
+        }
+    }
+}
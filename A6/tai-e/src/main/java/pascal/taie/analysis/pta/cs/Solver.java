@@ -30,6 +30,7 @@ import pascal.taie.analysis.graph.callgraph.CallKind;
 import pascal.taie.analysis.graph.callgraph.Edge;
 import pascal.taie.analysis.pta.PointerAnalysisResult;
 import pascal.taie.analysis.pta.PointerAnalysisResultImpl;
+import pascal.taie.analysis.pta.core.VarOps;
 import pascal.taie.analysis.pta.core.cs.CSCallGraph;
 import pascal.taie.analysis.pta.core.cs.context.Context;
 import pascal.taie.analysis.pta.core.cs.element.ArrayIndex;
@@ -38,31 +39,42 @@ import pascal.taie.analysis.pta.core.cs.element.CSManager;
 import pascal.taie.analysis.pta.core.cs.element.CSMethod;
 import pascal.taie.analysis.pta.core.cs.element.CSObj;
 import pascal.taie.analysis.pta.core.cs.element.CSVar;
+import pascal.taie.analysis.pta.core.cs.element.IndexedCSManager;
 import pascal.taie.analysis.pta.core.cs.element.InstanceField;
-import pascal.taie.analysis.pta.core.cs.element.MapBasedCSManager;
 import pascal.taie.analysis.pta.core.cs.element.Pointer;
-import pascal.taie.analysis.pta.core.cs.element.StaticField;
 import pascal.taie.analysis.pta.core.cs.selector.ContextSelector;
+import pascal.taie.analysis.pta.core.cs.selector.SelectiveSelector;
 import pascal.taie.analysis.pta.core.heap.HeapModel;
 import pascal.taie.analysis.pta.core.heap.Obj;
 import pascal.taie.analysis.pta.pts.PointsToSet;
+import pascal.taie.analysis.pta.pts.ImmutablePointsToSet;
+import pascal.taie.analysis.pta.pts.MappedPointsToSetStore;
 import pascal.taie.analysis.pta.pts.PointsToSetFactory;
+import pascal.taie.analysis.pta.pts.PointsToSetInterner;
 import pascal.taie.config.AnalysisOptions;
+import pascal.taie.config.ConfigException;
 import pascal.taie.ir.IR;
 import pascal.taie.ir.exp.InvokeExp;
+import pascal.taie.ir.exp.InvokeInstanceExp;
 import pascal.taie.ir.exp.Var;
-import pascal.taie.ir.stmt.Copy;
 import pascal.taie.ir.stmt.Invoke;
-import pascal.taie.ir.stmt.LoadArray;
-import pascal.taie.ir.stmt.LoadField;
-import pascal.taie.ir.stmt.New;
-import pascal.taie.ir.stmt.StmtVisitor;
-import pascal.taie.ir.stmt.StoreArray;
-import pascal.taie.ir.stmt.StoreField;
+import pascal.taie.ir.stmt.Stmt;
 import pascal.taie.language.classes.JField;
 import pascal.taie.language.classes.JMethod;
 import pascal.taie.language.type.Type;
 
+import pascal.taie.util.collection.LongHashSet;
+import pascal.taie.util.collection.LongObjectMap;
+import pascal.taie.util.AnalysisException;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.Sets;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 class Solver {
@@ -75,35 +87,114 @@ class Solver {
 
     private final ContextSelector contextSelector;
 
-    private CSManager csManager;
+    /**
+     * Filters objects propagated along PFG edges by types of target pointers,
+     * or null if type filtering is disabled.
+     */
+    private final TypeFilter typeFilter;
+
+    /**
+     * Budgets of this analysis, or null if the analysis is not budgeted.
+     */
+    private final Budget budget;
+
+    /**
+     * Hash-conses the points-to sets during the analysis,
+     * or null if in-solve sharing is disabled.
+     */
+    private final PointsToSetInterner interner;
+
+    private IndexedCSManager csManager;
 
     private CSCallGraph callGraph;
 
-    private StmtProcessor stmtProcessor;
+    /**
+     * Templates of the methods that have been reached in any context.
+     */
+    private final Map<JMethod, MethodTemplate> templates = Maps.newMap();
 
     private PointerFlowGraph pointerFlowGraph;
 
     private WorkList workList;
 
+    /**
+     * Indexes of (CS call site, CS callee) pairs of the call edges.
+     */
+    private LongHashSet callEdges;
+
+    /**
+     * Methods removed from the program by {@link #update}.
+     */
+    private final Set<JMethod> removedMethods = Sets.newSet();
+
     private PointerAnalysisResult result;
 
     Solver(AnalysisOptions options, HeapModel heapModel,
            ContextSelector contextSelector) {
         this.options = options;
         this.heapModel = heapModel;
-        this.contextSelector = contextSelector;
+        this.budget = Budget.of(options);
+        this.contextSelector = budget == null ? contextSelector :
+                new SelectiveSelector(contextSelector,
+                        budget.getDegradedMethods(), budget.getDegradedObjs());
+        this.typeFilter = options.getBooleanOrDefault("type-filter", false) ?
+                new TypeFilter(World.get().getTypeSystem()) : null;
+        String sharing = options.getString("pts-sharing");
+        if (sharing == null || sharing.equals("post-solve")) {
+            this.interner = null;
+        } else if (sharing.equals("in-solve")) {
+            this.interner = new PointsToSetInterner();
+        } else {
+            throw new ConfigException("Unexpected pts-sharing: " + sharing);
+        }
     }
 
     void solve() {
         initialize();
         analyze();
+        storePointsToSets(options, csManager);
+    }
+
+    /**
+     * Stores the converged points-to sets of the pointers in given
+     * CS manager as specified by options "pts-sharing" (hash-consing
+     * identical sets) and "off-heap-pts" (moving the sets to
+     * a memory-mapped file). This is also applied to the results
+     * loaded from {@link ResultCache}.
+     */
+    static void storePointsToSets(AnalysisOptions options, CSManager csManager) {
+        if (options.getString("pts-sharing") != null) {
+            PointsToSetInterner compacted = PointsToSetInterner.compact(csManager);
+            logger.info("{} distinct points-to sets after compaction",
+                    compacted.size());
+        }
+        if (options.getBooleanOrDefault("off-heap-pts", false)) {
+            spillPointsToSets(csManager);
+        }
+    }
+
+    /**
+     * Moves the converged points-to sets to a memory-mapped file.
+     * As the analysis has already finished, a failure to map the file
+     * does not fail the analysis: the points-to sets are kept on heap.
+     */
+    private static void spillPointsToSets(CSManager csManager) {
+        try {
+            MappedPointsToSetStore store = MappedPointsToSetStore.spill(csManager);
+            logger.info("Points-to sets of {} pointers are moved off heap",
+                    store.getNumberOfPointers());
+        } catch (AnalysisException e) {
+            logger.warn("Failed to move points-to sets off heap," +
+                    " keeping them on heap", e);
+        }
     }
 
     private void initialize() {
-        csManager = new MapBasedCSManager();
+        csManager = new IndexedCSManager();
         callGraph = new CSCallGraph(csManager);
         pointerFlowGraph = new PointerFlowGraph();
         workList = new WorkList();
+        callEdges = new LongHashSet();
 
         // process program entry, i.e., main method
         Context defContext = contextSelector.getEmptyContext();
@@ -115,97 +206,49 @@ class Solver {
 
     /**
      * Processes new reachable context-sensitive method.
+     * The relevant statements of the method are compiled into a
+     * {@link MethodTemplate} when the method is reached for the first time,
+     * and the template is instantiated for each new context of the method.
      */
     private void addReachable(CSMethod csMethod) {
-        // TODO - finish me
-        if(!callGraph.contains(csMethod)){
-            callGraph.addReachableMethod(csMethod);
-            IR ir = csMethod.getMethod().getIR();
-            ir.forEach(stmt->{
-                stmtProcessor = new StmtProcessor(csMethod);
-                stmt.accept(stmtProcessor);
-            });
+        if (callGraph.contains(csMethod)) {
+            return;
         }
-    }
-
-    /**
-     * Processes the statements in context-sensitive new reachable methods.
-     */
-    private class StmtProcessor implements StmtVisitor<Void> {
-
-        private final CSMethod csMethod;
-
-        private final Context context;
-
-        private StmtProcessor(CSMethod csMethod) {
-            this.csMethod = csMethod;
-            this.context = csMethod.getContext();
-        }
-        public Void visit(Copy stmt) {
-            Var x = stmt.getLValue();
-            Var y = stmt.getRValue();
-            CSVar cx = csManager.getCSVar(context,x);
-            CSVar cy = csManager.getCSVar(context,y);
-            addPFGEdge(cy,cx);
-            return StmtVisitor.super.visit(stmt);
-        }
-        public Void visit(New stmt) {
-            Obj o = heapModel.getObj(stmt);
-            Context c = contextSelector.selectHeapContext(csMethod,o);
-            CSObj co = csManager.getCSObj(c,o);
-            PointsToSet pts = PointsToSetFactory.make(co);
-            Var x = stmt.getLValue();
-            CSVar cx = csManager.getCSVar(context,x); //这里和ppt上不一样，两个上下文有区别的
-            workList.addEntry(cx,pts);
-            return StmtVisitor.super.visit(stmt);
-        }
-        public Void visit(LoadField stmt) {//y = T.f
-            if(stmt.isStatic()){
-                Var y =stmt.getLValue();
-                CSVar cy = csManager.getCSVar(context,y);
-                StaticField sf = csManager.getStaticField(stmt.getFieldRef().resolve());
-                addPFGEdge(sf, cy);
-            }
-            return StmtVisitor.super.visit(stmt);
-        }
-        public Void visit(StoreField stmt) {//T.f = y
-            if(stmt.isStatic()){
-                Var y = stmt.getRValue();
-                CSVar cy = csManager.getCSVar(context,y);
-                StaticField sf = csManager.getStaticField(stmt.getFieldRef().resolve());
-                addPFGEdge(cy,sf);
-            }
-            return StmtVisitor.super.visit(stmt);
-        }
-        public Void visit(Invoke stmt) {
-            if(stmt.isStatic()){
-                JMethod m = stmt.getMethodRef().resolve();
-
-                CSCallSite csc = csManager.getCSCallSite(context,stmt);
-                Context ct = contextSelector.selectContext(csc,m);
-                CSMethod cm = csManager.getCSMethod(ct,m);
-                if(callGraph.addEdge(new Edge<>(CallGraphs.getCallKind(stmt),csc,cm))){
-                    //.addReachableMethod(m);
-                    addReachable(cm);
-                    int size = m.getIR().getParams().size();
-                    for(int i=0;i<size;i++){
-                        addPFGEdge(csManager.getCSVar(context,stmt.getInvokeExp().getArg(i)),
-                                csManager.getCSVar(ct,m.getIR().getParam(i)));
-                    }
-                    for(Var v :m.getIR().getReturnVars()){
-                        Var l = stmt.getLValue();
-                        if(l!=null){
-                            addPFGEdge(csManager.getCSVar(ct,v),csManager.getCSVar(context,l));
-                        }
-
-                    }
-                }
-            }
-            return StmtVisitor.super.visit(stmt);
+        callGraph.addReachableMethod(csMethod);
+        MethodTemplate template = templates.computeIfAbsent(
+                csMethod.getMethod(), m -> MethodTemplate.compile(m, heapModel, csManager));
+        Context context = csMethod.getContext();
+        // x = new T()
+        for (int i = 0; i < template.newVars.length; ++i) {
+            Obj obj = template.newObjs[i];
+            Context heapContext = contextSelector.selectHeapContext(csMethod, obj);
+            CSObj csObj = csManager.getCSObj(heapContext, template.newObjIndexes[i]);
+            workList.addEntry(csManager.getCSVar(context, template.newVars[i]),
+                    PointsToSetFactory.make(csObj));
+        }
+        // x = y
+        for (int i = 0; i < template.copyTargets.length; ++i) {
+            addPFGEdge(csManager.getCSVar(context, template.copySources[i]),
+                    csManager.getCSVar(context, template.copyTargets[i]));
+        }
+        // y = T.f
+        for (int i = 0; i < template.staticLoadTargets.length; ++i) {
+            addPFGEdge(csManager.getStaticField(template.staticLoadFields[i]),
+                    csManager.getCSVar(context, template.staticLoadTargets[i]));
+        }
+        // T.f = y
+        for (int i = 0; i < template.staticStoreFields.length; ++i) {
+            addPFGEdge(csManager.getCSVar(context, template.staticStoreSources[i]),
+                    csManager.getStaticField(template.staticStoreFields[i]));
+        }
+        // static calls
+        for (int i = 0; i < template.staticInvokes.length; ++i) {
+            JMethod callee = template.staticCallees[i];
+            CSCallSite csCallSite = csManager.getCSCallSite(
+                    context, template.staticInvokes[i]);
+            Context calleeContext = contextSelector.selectContext(csCallSite, callee);
+            addCallEdge(csCallSite, csManager.getCSMethod(calleeContext, callee));
         }
-
-        // TODO - if you choose to implement addReachable()
-        //  via visitor pattern, then finish me
     }
 
     /**
@@ -214,7 +257,7 @@ class Solver {
     private void addPFGEdge(Pointer source, Pointer target) {
         // TODO - finish me
         if(pointerFlowGraph.addEdge(source,target)){
-            PointsToSet ptss = source.getPointsToSet();
+            PointsToSet ptss = filter(target, source.getPointsToSet());
             if(!ptss.isEmpty()){
                 workList.addEntry(target,ptss);
             }
@@ -230,29 +273,20 @@ class Solver {
             Pointer n = et.pointer();
             PointsToSet pts = et.pointsToSet();
             PointsToSet delta = propagate(n,pts);
-            if(n instanceof CSVar){
-                Var x = ((CSVar) n).getVar();
-                Context c = ((CSVar) n).getContext();
-                for (CSObj o:
-                        delta) {
-                    for(StoreField sf:x.getStoreFields()){//x.f = y
-                        addPFGEdge(csManager.getCSVar(c,sf.getRValue()),
-                                csManager.getInstanceField(o,sf.getFieldRef().resolve()));
-                    }
-                    for(LoadField lf:x.getLoadFields()){// y = x.f
-                        addPFGEdge(csManager.getInstanceField(o, lf.getFieldRef().resolve()),
-                                csManager.getCSVar(c,lf.getLValue()));
-                    }
-                    for(LoadArray la:x.getLoadArrays()){//y = x[i]
-                        addPFGEdge(csManager.getArrayIndex(o),
-                                csManager.getCSVar(c,la.getLValue()));
-                    }
-                    for(StoreArray sa:x.getStoreArrays()){ //x[i] = y
-                        addPFGEdge(csManager.getCSVar(c,sa.getRValue()),
-                                csManager.getArrayIndex(o));
-                    }
-                    CSVar cx = csManager.getCSVar(c,x);
-                    processCall(cx,o);
+            if (budget != null) {
+                String exceeded = budget.checkResources();
+                if (exceeded == null && !delta.isEmpty() &&
+                        budget.checkPointsToSetSize(n.getPointsToSet().size())) {
+                    exceeded = "pts-limit";
+                }
+                if (exceeded != null) {
+                    budget.degrade(exceeded, callGraph, csManager);
+                }
+            }
+            if (n instanceof CSVar csVar) {
+                VarOps ops = VarOps.of(csVar.getVar());
+                if (!ops.isEmpty()) {
+                    processInstanceOps(csVar, ops, delta);
                 }
             }
         }
@@ -276,50 +310,138 @@ class Solver {
         PointsToSet ptsn = pointer.getPointsToSet();
         PointsToSet delta = minus(pointsToSet,ptsn);
         if(!delta.isEmpty()){
-            for(CSObj o:delta){
-                pointer.getPointsToSet().addObject(o);
+            if (interner != null && ptsn.isEmpty()) {
+                // the pointer shares the canonical set until it changes
+                delta = interner.intern(delta);
+                pointer.setPointsToSet(delta);
+            } else {
+                if (ptsn instanceof ImmutablePointsToSet) {
+                    // copy on write
+                    ptsn = PointsToSetFactory.make();
+                    ptsn.addAll(pointer.getPointsToSet());
+                    pointer.setPointsToSet(ptsn);
+                }
+                for (CSObj o : delta) {
+                    ptsn.addObject(o);
+                }
             }
             Set<Pointer> set = pointerFlowGraph.getSuccsOf(pointer);
             for (Pointer s:set){
-                workList.addEntry(s,delta);
+                PointsToSet filtered = filter(s, delta);
+                if (!filtered.isEmpty()) {
+                    workList.addEntry(s, filtered);
+                }
             }
         }
         return delta;
     }
 
     /**
-     * Processes instance calls when points-to set of the receiver variable changes.
+     * @return the objects in given points-to set that can flow to
+     * the target pointer.
+     */
+    private PointsToSet filter(Pointer target, PointsToSet pts) {
+        return typeFilter == null ? pts : typeFilter.filter(target, pts);
+    }
+
+    /**
+     * Processes instance field stores/loads, array stores/loads and
+     * instance calls on given variable when its points-to set changes.
      *
-     * @param recv    the receiver variable
-     * @param recvObj set of new discovered objects pointed by the variable.
+     * @param csVar the variable whose points-to set changes
+     * @param ops   the operations on the variable
+     * @param delta set of new discovered objects pointed by the variable.
      */
-    private void processCall(CSVar recv, CSObj recvObj) {
-        for(Invoke invoke : recv.getVar().getInvokes()){
-            JMethod m = resolveCallee(recvObj,invoke);
-            Var mthis = m.getIR().getThis();
-            Context c = recv.getContext();
-            CSCallSite cs = csManager.getCSCallSite(c,invoke);//c:l
-            Context ct = contextSelector.selectContext(cs,recvObj,m);
-            CSMethod ctm = csManager.getCSMethod(ct,m);
-            workList.addEntry(csManager.getCSVar(ct,mthis),PointsToSetFactory.make(recvObj));
-            if(callGraph.addEdge(new Edge<>(CallGraphs.getCallKind(invoke),cs,ctm))){
-                addReachable(ctm);
-                int size = m.getIR().getParams().size();
-                for(int i=0;i<size;i++){
-                    addPFGEdge(csManager.getCSVar(c,invoke.getInvokeExp().getArg(i)),
-                            csManager.getCSVar(ct,m.getIR().getParam(i)));
-                }
-                for(Var v :m.getIR().getReturnVars()){
-                    Var l = invoke.getLValue();
-                    if(l!=null){
-                        addPFGEdge(csManager.getCSVar(ct,v), csManager.getCSVar(c,l));
-                    }
+    private void processInstanceOps(CSVar csVar, VarOps ops, PointsToSet delta) {
+        Context c = csVar.getContext();
+        for (CSObj o : delta) {
+            for (int i = 0; i < ops.storeFields.length; ++i) { // x.f = y
+                addPFGEdge(csManager.getCSVar(c, ops.storeSources[i]),
+                        csManager.getInstanceField(o, ops.storeFields[i]));
+            }
+            for (int i = 0; i < ops.loadFields.length; ++i) { // y = x.f
+                addPFGEdge(csManager.getInstanceField(o, ops.loadFields[i]),
+                        csManager.getCSVar(c, ops.loadTargets[i]));
+            }
+            for (Var y : ops.loadArrayTargets) { // y = x[i]
+                addPFGEdge(csManager.getArrayIndex(o), csManager.getCSVar(c, y));
+            }
+            for (Var y : ops.storeArraySources) { // x[i] = y
+                addPFGEdge(csManager.getCSVar(c, y), csManager.getArrayIndex(o));
+            }
+        }
+        if (ops.invokes.length > 0) {
+            processCall(csVar, ops.invokes, delta);
+        }
+    }
 
+    /**
+     * Processes instance calls when points-to set of the receiver variable changes.
+     * Receiver objects that are dispatched to the same context-sensitive
+     * callee are passed to "this" variable of the callee in one batch.
+     *
+     * @param recv     the receiver variable
+     * @param invokes  the instance calls on the receiver variable
+     * @param recvObjs set of new discovered objects pointed by the variable.
+     */
+    private void processCall(CSVar recv, Invoke[] invokes, PointsToSet recvObjs) {
+        Context c = recv.getContext();
+        for (Invoke invoke : invokes) {
+            CSCallSite csCallSite = csManager.getCSCallSite(c, invoke);
+            Map<CSMethod, PointsToSet> thisObjs = Maps.newHybridMap();
+            for (CSObj recvObj : recvObjs) {
+                JMethod callee = resolveCallee(recvObj, invoke);
+                if (callee != null) {
+                    Context ct = contextSelector.selectContext(
+                            csCallSite, recvObj, callee);
+                    thisObjs.computeIfAbsent(csManager.getCSMethod(ct, callee),
+                                    unused -> PointsToSetFactory.make())
+                            .addObject(recvObj);
                 }
+            }
+            thisObjs.forEach((csCallee, objs) -> {
+                Var thisVar = csCallee.getMethod().getIR().getThis();
+                workList.addEntry(
+                        csManager.getCSVar(csCallee.getContext(), thisVar), objs);
+                addCallEdge(csCallSite, csCallee);
+            });
+        }
+    }
 
+    /**
+     * Adds call edge from a context-sensitive call site to
+     * a context-sensitive callee, and if the edge is new, makes the callee
+     * reachable and adds PFG edges for parameter passing and return values.
+     * The existence of the edge is checked via indexes of the call site and
+     * the callee, so that no {@link Edge} is created for existing edges.
+     */
+    private void addCallEdge(CSCallSite csCallSite, CSMethod csCallee) {
+        if (!removedMethods.isEmpty() &&
+                removedMethods.contains(csCallee.getMethod())) {
+            return;
+        }
+        if (!callEdges.add(LongObjectMap.key(
+                csCallSite.getIndex(), csCallee.getIndex()))) {
+            return;
+        }
+        Invoke invoke = csCallSite.getCallSite();
+        callGraph.addEdge(new Edge<>(
+                CallGraphs.getCallKind(invoke), csCallSite, csCallee));
+        addReachable(csCallee);
+        Context c = csCallSite.getContext();
+        Context ct = csCallee.getContext();
+        IR calleeIR = csCallee.getMethod().getIR();
+        int size = calleeIR.getParams().size();
+        for (int i = 0; i < size; i++) {
+            addPFGEdge(csManager.getCSVar(c, invoke.getInvokeExp().getArg(i)),
+                    csManager.getCSVar(ct, calleeIR.getParam(i)));
+        }
+        Var l = invoke.getLValue();
+        if (l != null) {
+            for (Var v : calleeIR.getReturnVars()) {
+                addPFGEdge(csManager.getCSVar(ct, v), csManager.getCSVar(c, l));
             }
         }
-        // TODO - finish me
     }
 
     /**
@@ -335,9 +457,214 @@ class Solver {
         return CallGraphs.resolveCallee(type, callSite);
     }
 
+    /**
+     * Incrementally updates the solved state after some methods changed
+     * or were removed from the program, in the style of DRed
+     * (delete and re-derive):
+     * <ol>
+     *     <li>All contexts of the changed and removed methods, their
+     *     call edges, and the PFG edges from/to their variables are
+     *     deleted.</li>
+     *     <li>The points-to sets of all pointers reachable from the
+     *     deleted PFG edges (including "this" variables of the callees
+     *     of the deleted call edges) are over-deleted.</li>
+     *     <li>The over-deleted points-to sets are re-derived from
+     *     their remaining PFG predecessors, allocation sites and
+     *     receiver objects, the changed methods are re-added to
+     *     their previous contexts and call sites, and the work list is
+     *     processed again.</li>
+     * </ol>
+     * Call edges and reachable methods derived from over-deleted points-to
+     * sets are kept, so the result is sound but may be less precise than
+     * solving from scratch.
+     * <p>
+     * The IR of the changed methods is supposed to be already changed when
+     * this method is called, so the elements to delete are found in the IR
+     * kept by their templates, i.e., the IR that was solved.
+     *
+     * @param changed methods whose IR changed
+     * @param removed methods that were removed from the program
+     */
+    void update(Collection<JMethod> changed, Collection<JMethod> removed) {
+        if (options.getBooleanOrDefault("off-heap-pts", false)) {
+            throw new AnalysisException(
+                    "Cannot update points-to sets that are stored off heap");
+        }
+        removedMethods.addAll(removed);
+        Set<JMethod> deleted = Sets.newSet();
+        deleted.addAll(changed);
+        deleted.addAll(removed);
+        List<CSMethod> deletedCSMethods = callGraph.reachableMethods()
+                .filter(csMethod -> deleted.contains(csMethod.getMethod()))
+                .toList();
+        // 1. delete CS methods, call edges and PFG edges
+        List<CSMethod> changedEntries = new ArrayList<>();
+        List<Edge<CSCallSite, CSMethod>> changedCallEdges = new ArrayList<>();
+        Set<Pointer> seeds = Sets.newSet();
+        Set<Pointer> affected = Sets.newSet();
+        for (CSMethod csMethod : deletedCSMethods) {
+            IR solvedIR = templates.get(csMethod.getMethod()).ir;
+            Context context = csMethod.getContext();
+            boolean isChanged = changed.contains(csMethod.getMethod());
+            if (isChanged && callGraph.entryMethods().anyMatch(csMethod::equals)) {
+                changedEntries.add(csMethod);
+            }
+            for (Edge<CSCallSite, CSMethod> edge : csMethod.getEdges()) {
+                removeCallEdgeKey(edge);
+                if (isChanged && !deleted.contains(
+                        edge.getCallSite().getContainer().getMethod())) {
+                    changedCallEdges.add(edge);
+                }
+            }
+            for (Stmt stmt : solvedIR) {
+                if (stmt instanceof Invoke invoke) {
+                    CSCallSite csCallSite = csManager.getCSCallSite(context, invoke);
+                    for (Edge<CSCallSite, CSMethod> edge :
+                            List.copyOf(csCallSite.getEdges())) {
+                        removeCallEdgeKey(edge);
+                        callGraph.removeEdge(edge);
+                        CSMethod callee = edge.getCallee();
+                        Var thisVar = getSolvedIR(callee.getMethod()).getThis();
+                        if (thisVar != null) {
+                            affected.add(csManager.getCSVar(
+                                    callee.getContext(), thisVar));
+                        }
+                    }
+                }
+            }
+            callGraph.removeReachableMethod(csMethod);
+            solvedIR.getVars().forEach(var ->
+                    seeds.add(csManager.getCSVar(context, var)));
+        }
+        for (JMethod method : deleted) {
+            MethodTemplate template = templates.remove(method);
+            if (template != null) {
+                VarOps.discard(template.ir.getVars());
+            }
+            csManager.discardVarsAndCallSites(method);
+        }
+        for (Pointer source : List.copyOf(pointerFlowGraph.getSources())) {
+            boolean isSeed = seeds.contains(source);
+            for (Pointer target : List.copyOf(pointerFlowGraph.getSuccsOf(source))) {
+                if (isSeed || seeds.contains(target)) {
+                    pointerFlowGraph.removeEdge(source, target);
+                    affected.add(target);
+                }
+            }
+        }
+        // 2. over-delete the points-to sets reachable from the deleted edges
+        Deque<Pointer> queue = new ArrayDeque<>(affected);
+        while (!queue.isEmpty()) {
+            for (Pointer succ : pointerFlowGraph.getSuccsOf(queue.poll())) {
+                if (affected.add(succ)) {
+                    queue.add(succ);
+                }
+            }
+        }
+        affected.removeAll(seeds);
+        seeds.forEach(p -> p.setPointsToSet(PointsToSetFactory.make()));
+        affected.forEach(p -> p.setPointsToSet(PointsToSetFactory.make()));
+        logger.info("Incremental update: {} CS methods deleted," +
+                " {} points-to sets over-deleted",
+                deletedCSMethods.size(), affected.size());
+        // 3. re-derive
+        for (Pointer source : pointerFlowGraph.getSources()) {
+            if (!affected.contains(source) && !source.getPointsToSet().isEmpty()) {
+                for (Pointer target : pointerFlowGraph.getSuccsOf(source)) {
+                    if (affected.contains(target)) {
+                        workList.addEntry(target,
+                                filter(target, source.getPointsToSet()));
+                    }
+                }
+            }
+        }
+        for (Pointer pointer : affected) {
+            if (pointer instanceof CSVar csVar) {
+                rederiveVar(csVar);
+            }
+        }
+        for (CSMethod csMethod : changedEntries) {
+            callGraph.addEntryMethod(csMethod);
+            addReachable(csMethod);
+        }
+        for (Edge<CSCallSite, CSMethod> edge : changedCallEdges) {
+            addCallEdge(edge.getCallSite(), edge.getCallee());
+            Var thisVar = edge.getCallee().getMethod().getIR().getThis();
+            if (thisVar != null) {
+                rederiveVar(csManager.getCSVar(
+                        edge.getCallee().getContext(), thisVar));
+            }
+        }
+        analyze();
+        result = null;
+    }
+
+    /**
+     * @return the IR of given method which was solved, i.e., the IR kept by
+     * its template, or its current IR if it has not been reached.
+     */
+    private IR getSolvedIR(JMethod method) {
+        MethodTemplate template = templates.get(method);
+        return template != null ? template.ir : method.getIR();
+    }
+
+    private void removeCallEdgeKey(Edge<CSCallSite, CSMethod> edge) {
+        callEdges.remove(LongObjectMap.key(
+                edge.getCallSite().getIndex(), edge.getCallee().getIndex()));
+    }
+
+    /**
+     * Re-derives the objects that flow to a variable not along PFG edges,
+     * i.e., the objects allocated to the variable, and the receiver
+     * objects passed to the variable if it is "this" variable.
+     */
+    private void rederiveVar(CSVar csVar) {
+        Var var = csVar.getVar();
+        Context context = csVar.getContext();
+        JMethod method = var.getMethod();
+        CSMethod csMethod = csManager.getCSMethod(context, method);
+        if (!callGraph.contains(csMethod)) {
+            return;
+        }
+        MethodTemplate template = templates.get(method);
+        for (int i = 0; i < template.newVars.length; ++i) {
+            if (template.newVars[i] == var) {
+                Obj obj = template.newObjs[i];
+                Context heapContext = contextSelector.selectHeapContext(csMethod, obj);
+                workList.addEntry(csVar, PointsToSetFactory.make(
+                        csManager.getCSObj(heapContext, template.newObjIndexes[i])));
+            }
+        }
+        if (var != method.getIR().getThis()) {
+            return;
+        }
+        PointsToSet recvObjs = PointsToSetFactory.make();
+        for (Edge<CSCallSite, CSMethod> edge : csMethod.getEdges()) {
+            CSCallSite csCallSite = edge.getCallSite();
+            Invoke invoke = csCallSite.getCallSite();
+            if (invoke.getInvokeExp() instanceof InvokeInstanceExp invokeExp) {
+                CSVar recv = csManager.getCSVar(
+                        csCallSite.getContext(), invokeExp.getBase());
+                for (CSObj recvObj : recv.getPointsToSet()) {
+                    if (resolveCallee(recvObj, invoke) == method &&
+                            contextSelector.selectContext(
+                                    csCallSite, recvObj, method) == context) {
+                        recvObjs.addObject(recvObj);
+                    }
+                }
+            }
+        }
+        if (!recvObjs.isEmpty()) {
+            workList.addEntry(csVar, recvObjs);
+        }
+    }
+
     PointerAnalysisResult getResult() {
         if (result == null) {
             result = new PointerAnalysisResultImpl(csManager, callGraph);
+            if (budget != null) {
+                result.storeResult(Budget.REPORT_KEY, budget.getDegradations());
+            }
         }
         return result;
     }
@@ -0,0 +1,90 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.cs;
+
+import pascal.taie.analysis.pta.core.cs.element.CSObj;
+import pascal.taie.analysis.pta.core.cs.element.Pointer;
+import pascal.taie.analysis.pta.pts.PointsToSet;
+import pascal.taie.analysis.pta.pts.PointsToSetFactory;
+import pascal.taie.language.type.ReferenceType;
+import pascal.taie.language.type.Type;
+import pascal.taie.language.type.TypeSystem;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.TwoKeyMap;
+
+/**
+ * Filters objects that flow along PFG edges by the type of target pointers,
+ * i.e., an object can flow to a pointer only if its type is a subtype of
+ * the (declared) type of the pointer.
+ */
+class TypeFilter {
+
+    private final TypeSystem typeSystem;
+
+    /**
+     * Cache of subtype checks: (pointer type, object type) -> result.
+     */
+    private final TwoKeyMap<Type, Type, Boolean> subtypes = Maps.newTwoKeyMap();
+
+    TypeFilter(TypeSystem typeSystem) {
+        this.typeSystem = typeSystem;
+    }
+
+    /**
+     * @return the objects in given points-to set that can flow to the target
+     * pointer. If all objects can flow to the target, then given points-to set
+     * itself is returned.
+     */
+    PointsToSet filter(Pointer target, PointsToSet pts) {
+        Type type = target.getType();
+        if (!(type instanceof ReferenceType)) {
+            return pts;
+        }
+        PointsToSet result = null;
+        int nAccepted = 0;
+        for (CSObj obj : pts) {
+            if (isAssignable(type, obj.getObject().getType())) {
+                if (result != null) {
+                    result.addObject(obj);
+                }
+                ++nAccepted;
+            } else if (result == null) {
+                // first rejected object, copy the objects accepted so far
+                result = PointsToSetFactory.make();
+                int n = nAccepted;
+                for (CSObj o : pts) {
+                    if (n-- == 0) {
+                        break;
+                    }
+                    result.addObject(o);
+                }
+            }
+        }
+        return result != null ? result : pts;
+    }
+
+    private boolean isAssignable(Type pointerType, Type objType) {
+        return subtypes.computeIfAbsent(pointerType, objType,
+                (t1, t2) -> typeSystem.isSubtype(t1, t2));
+    }
+}
@@ -0,0 +1,173 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.pta.pts;
+
+import pascal.taie.analysis.pta.core.cs.element.CSObj;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Immutable points-to set which can be shared by multiple pointers.
+ * <p>
+ * The objects are stored in an exact-size array sorted by their indexes,
+ * thus membership is tested by binary search. Two immutable sets are equal
+ * if they contain the same objects, so that they can be hash-consed by
+ * {@link PointsToSetInterner}.
+ */
+public final class ImmutablePointsToSet implements PointsToSet {
+
+    private static final CSObj[] NO_OBJECTS = new CSObj[0];
+
+    private static final Comparator<CSObj> BY_INDEX =
+            Comparator.comparingInt(CSObj::getIndex);
+
+    private final CSObj[] objs;
+
+    private final int hashCode;
+
+    private ImmutablePointsToSet(CSObj[] objs) {
+        this.objs = objs;
+        this.hashCode = Arrays.hashCode(objs);
+    }
+
+    /**
+     * @return an immutable points-to set that contains
+     * the same objects as given set.
+     */
+    public static ImmutablePointsToSet copyOf(PointsToSet pts) {
+        if (pts instanceof ImmutablePointsToSet immutable) {
+            return immutable;
+        }
+        CSObj[] objs = pts.isEmpty() ? NO_OBJECTS :
+                pts.getObjects().toArray(NO_OBJECTS);
+        Arrays.sort(objs, BY_INDEX);
+        return new ImmutablePointsToSet(objs);
+    }
+
+    /**
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public boolean addObject(CSObj obj) {
+        throw new UnsupportedOperationException(
+                "ImmutablePointsToSet cannot be modified");
+    }
+
+    /**
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public boolean addAll(PointsToSet pts) {
+        throw new UnsupportedOperationException(
+                "ImmutablePointsToSet cannot be modified");
+    }
+
+    @Override
+    public boolean contains(CSObj obj) {
+        return Arrays.binarySearch(objs, obj, BY_INDEX) >= 0;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return objs.length == 0;
+    }
+
+    @Override
+    public int size() {
+        return objs.length;
+    }
+
+    @Override
+    public Set<CSObj> getObjects() {
+        return new AbstractSet<>() {
+            @Override
+            public boolean contains(Object o) {
+                return o instanceof CSObj obj &&
+                        ImmutablePointsToSet.this.contains(obj);
+            }
+
+            @Override
+            public Iterator<CSObj> iterator() {
+                return ImmutablePointsToSet.this.iterator();
+            }
+
+            @Override
+            public int size() {
+                return objs.length;
+            }
+        };
+    }
+
+    @Override
+    public Stream<CSObj> objects() {
+        return Arrays.stream(objs);
+    }
+
+    @Override
+    public Iterator<CSObj> iterator() {
+        return new Iterator<>() {
+
+            private int next = 0;
+
+            @Override
+            public boolean hasNext() {
+                return next < objs.length;
+            }
+
+            @Override
+            public CSObj next() {
+                if (next >= objs.length) {
+                    throw new NoSuchElementException();
+                }
+                return objs[next++];
+            }
+        };
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        return o instanceof ImmutablePointsToSet that &&
+                hashCode == that.hashCode &&
+                Arrays.equals(objs, that.objs);
+    }
+
+    @Override
+    public int hashCode() {
+        return hashCode;
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(objs);
+    }
+}
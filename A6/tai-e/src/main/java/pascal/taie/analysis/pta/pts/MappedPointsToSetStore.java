@@ -0,0 +1,315 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.pta.pts;
+
+import pascal.taie.analysis.pta.core.cs.element.CSManager;
+import pascal.taie.analysis.pta.core.cs.element.CSObj;
+import pascal.taie.analysis.pta.core.cs.element.Pointer;
+import pascal.taie.util.AnalysisException;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+/**
+ * Stores converged points-to sets in memory-mapped files instead of
+ * the Java heap.
+ * <p>
+ * The file is an array of ints: the indexes of the objects in the
+ * points-to set of each pointer, sorted in ascending order, one set after
+ * another. As a single mapping cannot exceed 2GB, the file is mapped as
+ * several segments of at most {@link #SEGMENT_INTS} ints, and the segment
+ * of each int is chosen by its position in the file. The points-to set of
+ * each pointer is then replaced by a read-only view of its range in the
+ * file, which decodes the objects from the mapping on demand, so that
+ * clients of the result, e.g., {@code getPointsToSet(Var)}, are served
+ * lazily from the mapping.
+ */
+public class MappedPointsToSetStore {
+
+    /**
+     * Log2 of the number of ints in each mapped segment.
+     */
+    private static final int SEGMENT_SHIFT = 28;
+
+    /**
+     * Number of ints in each mapped segment (i.e., 1GB per segment).
+     */
+    private static final long SEGMENT_INTS = 1L << SEGMENT_SHIFT;
+
+    private static final long SEGMENT_MASK = SEGMENT_INTS - 1;
+
+    private final IntBuffer[] segments;
+
+    /**
+     * Objects indexed by {@link CSObj#getIndex()}.
+     */
+    private final CSObj[] objects;
+
+    private final int numPointers;
+
+    private MappedPointsToSetStore(IntBuffer[] segments, CSObj[] objects,
+                                   int numPointers) {
+        this.segments = segments;
+        this.objects = objects;
+        this.numPointers = numPointers;
+    }
+
+    /**
+     * Spills the points-to sets of all pointers in given CS manager to
+     * a temporary memory-mapped file, and replaces the points-to sets of
+     * the pointers by views of the file. This is supposed to be called
+     * after pointer analysis finishes, as the views cannot be modified.
+     * If the file cannot be created or mapped, no points-to set is
+     * replaced.
+     *
+     * @return the store holding the mapped points-to sets.
+     * @throws AnalysisException if failed to create or map the file
+     */
+    public static MappedPointsToSetStore spill(CSManager csManager) {
+        List<Pointer> pointers = new ArrayList<>();
+        pointers.addAll(csManager.getCSVars());
+        pointers.addAll(csManager.getStaticFields());
+        pointers.addAll(csManager.getInstanceFields());
+        pointers.addAll(csManager.getArrayIndexes());
+        Collection<CSObj> csObjs = csManager.getObjects();
+        CSObj[] objects = new CSObj[csObjs.stream()
+                .mapToInt(CSObj::getIndex).max().orElse(-1) + 1];
+        csObjs.forEach(o -> objects[o.getIndex()] = o);
+        long total = 0;
+        for (Pointer p : pointers) {
+            total += p.getPointsToSet().size();
+        }
+        MappedPointsToSetStore store = new MappedPointsToSetStore(
+                map(total), objects, pointers.size());
+        long offset = 0;
+        for (Pointer p : pointers) {
+            int[] objIndexes = p.getPointsToSet()
+                    .objects()
+                    .mapToInt(CSObj::getIndex)
+                    .sorted()
+                    .toArray();
+            for (int i = 0; i < objIndexes.length; ++i) {
+                store.put(offset + i, objIndexes[i]);
+            }
+            p.setPointsToSet(store.new MappedPointsToSet(
+                    offset, offset + objIndexes.length));
+            offset += objIndexes.length;
+        }
+        return store;
+    }
+
+    /**
+     * Maps a temporary file of given number of ints as segments.
+     */
+    private static IntBuffer[] map(long ints) {
+        Path file;
+        try {
+            file = Files.createTempFile("tai-e-pts", ".bin");
+        } catch (IOException e) {
+            throw new AnalysisException(e);
+        }
+        try (FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // the mappings remain valid after the channel is closed
+            IntBuffer[] segments = new IntBuffer[
+                    (int) ((ints + SEGMENT_INTS - 1) >>> SEGMENT_SHIFT)];
+            for (int i = 0; i < segments.length; ++i) {
+                long start = i * SEGMENT_INTS;
+                long size = Math.min(SEGMENT_INTS, ints - start);
+                segments[i] = channel.map(FileChannel.MapMode.READ_WRITE,
+                                start * Integer.BYTES, size * Integer.BYTES)
+                        .order(ByteOrder.nativeOrder())
+                        .asIntBuffer();
+            }
+            return segments;
+        } catch (IOException e) {
+            throw new AnalysisException(e);
+        } finally {
+            delete(file);
+        }
+    }
+
+    /**
+     * Deletes the mapped file right away, as the mappings remain valid
+     * after the file is unlinked (on POSIX systems), and the disk space
+     * is released once the mappings are garbage collected. If the file
+     * cannot be deleted while mapped (e.g., on Windows), it is deleted
+     * when the JVM exits.
+     */
+    private static void delete(Path file) {
+        try {
+            Files.delete(file);
+        } catch (IOException e) {
+            file.toFile().deleteOnExit();
+        }
+    }
+
+    private int get(long pos) {
+        return segments[(int) (pos >>> SEGMENT_SHIFT)]
+                .get((int) (pos & SEGMENT_MASK));
+    }
+
+    private void put(long pos, int value) {
+        segments[(int) (pos >>> SEGMENT_SHIFT)]
+                .put((int) (pos & SEGMENT_MASK), value);
+    }
+
+    /**
+     * @return the number of pointers whose points-to sets are stored.
+     */
+    public int getNumberOfPointers() {
+        return numPointers;
+    }
+
+    /**
+     * Read-only view of a points-to set stored in the mapped file
+     * from position {@code start} (inclusive) to {@code end} (exclusive).
+     */
+    private class MappedPointsToSet implements PointsToSet {
+
+        private final long start;
+
+        private final long end;
+
+        private MappedPointsToSet(long start, long end) {
+            this.start = start;
+            this.end = end;
+        }
+
+        /**
+         * @throws UnsupportedOperationException always
+         */
+        @Override
+        public boolean addObject(CSObj obj) {
+            throw new UnsupportedOperationException(
+                    "MappedPointsToSet cannot be modified");
+        }
+
+        /**
+         * @throws UnsupportedOperationException always
+         */
+        @Override
+        public boolean addAll(PointsToSet pts) {
+            throw new UnsupportedOperationException(
+                    "MappedPointsToSet cannot be modified");
+        }
+
+        @Override
+        public boolean contains(CSObj obj) {
+            int key = obj.getIndex();
+            long low = start, high = end - 1;
+            while (low <= high) {
+                long mid = (low + high) >>> 1;
+                int midKey = get(mid);
+                if (midKey < key) {
+                    low = mid + 1;
+                } else if (midKey > key) {
+                    high = mid - 1;
+                } else {
+                    return objects[midKey] == obj;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return start == end;
+        }
+
+        @Override
+        public int size() {
+            // a points-to set has at most as many objects as objects[]
+            return (int) (end - start);
+        }
+
+        @Override
+        public Set<CSObj> getObjects() {
+            return new AbstractSet<>() {
+                @Override
+                public boolean contains(Object o) {
+                    return o instanceof CSObj obj &&
+                            MappedPointsToSet.this.contains(obj);
+                }
+
+                @Override
+                public Iterator<CSObj> iterator() {
+                    return MappedPointsToSet.this.iterator();
+                }
+
+                @Override
+                public int size() {
+                    return MappedPointsToSet.this.size();
+                }
+            };
+        }
+
+        @Override
+        public Stream<CSObj> objects() {
+            return LongStream.range(start, end)
+                    .mapToObj(i -> objects[get(i)]);
+        }
+
+        @Override
+        public Iterator<CSObj> iterator() {
+            return new Iterator<>() {
+
+                private long next = start;
+
+                @Override
+                public boolean hasNext() {
+                    return next < end;
+                }
+
+                @Override
+                public CSObj next() {
+                    if (next >= end) {
+                        throw new NoSuchElementException();
+                    }
+                    return objects[get(next++)];
+                }
+            };
+        }
+
+        @Override
+        public String toString() {
+            return Arrays.toString(objects().toArray());
+        }
+    }
+}
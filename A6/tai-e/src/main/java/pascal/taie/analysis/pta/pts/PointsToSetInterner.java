@@ -0,0 +1,89 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.pta.pts;
+
+import pascal.taie.analysis.pta.core.cs.element.CSManager;
+import pascal.taie.analysis.pta.core.cs.element.Pointer;
+
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Hash-conses points-to sets, i.e., maps points-to sets that contain
+ * the same objects to one canonical {@link ImmutablePointsToSet}.
+ * <p>
+ * The canonical sets are held weakly. During solving, a pointer shares
+ * a canonical set only until its points-to set changes, so the interner
+ * must not keep such intermediate sets alive once no pointer uses them.
+ */
+public class PointsToSetInterner {
+
+    private final Map<ImmutablePointsToSet, WeakReference<ImmutablePointsToSet>>
+            canonicalSets = new WeakHashMap<>();
+
+    /**
+     * @return the canonical immutable set that contains
+     * the same objects as given points-to set.
+     */
+    public ImmutablePointsToSet intern(PointsToSet pts) {
+        ImmutablePointsToSet set = ImmutablePointsToSet.copyOf(pts);
+        WeakReference<ImmutablePointsToSet> ref = canonicalSets.get(set);
+        ImmutablePointsToSet canonical = ref != null ? ref.get() : null;
+        if (canonical == null) {
+            canonicalSets.put(set, new WeakReference<>(set));
+            canonical = set;
+        }
+        return canonical;
+    }
+
+    /**
+     * @return the number of distinct interned points-to sets
+     * that are still in use.
+     */
+    public int size() {
+        return canonicalSets.size();
+    }
+
+    /**
+     * Replaces the points-to sets of all pointers in given CS manager by
+     * canonical immutable sets. This is supposed to be called after
+     * pointer analysis finishes, as the points-to sets cannot be
+     * modified afterwards.
+     *
+     * @return the interner holding the canonical sets.
+     */
+    public static PointsToSetInterner compact(CSManager csManager) {
+        PointsToSetInterner interner = new PointsToSetInterner();
+        csManager.getCSVars().forEach(interner::share);
+        csManager.getStaticFields().forEach(interner::share);
+        csManager.getInstanceFields().forEach(interner::share);
+        csManager.getArrayIndexes().forEach(interner::share);
+        return interner;
+    }
+
+    private void share(Pointer pointer) {
+        pointer.setPointsToSet(intern(pointer.getPointsToSet()));
+    }
+}
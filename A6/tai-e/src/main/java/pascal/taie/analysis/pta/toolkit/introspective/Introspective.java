@@ -0,0 +1,200 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.toolkit.introspective;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.analysis.pta.PointerAnalysisResult;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.config.AnalysisOptions;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.Sets;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Introspective analysis, which decides where context sensitivity should
+ * be refused, based on metrics of a context-insensitive pre-analysis.
+ * <p>
+ * The metrics are computed from the context-insensitive points-to sets:
+ * <ul>
+ *     <li>in-flow of a method: total points-to set size of its parameters
+ *     (including "this" variable);</li>
+ *     <li>out-flow of a method: total points-to set size of its
+ *     return variables;</li>
+ *     <li>volume of a method: total points-to set size of all its
+ *     variables;</li>
+ *     <li>pointed-by-vars of an object: number of variables whose points-to
+ *     sets contain the object.</li>
+ * </ul>
+ * Methods whose in-flow, out-flow or volume exceeds the corresponding
+ * threshold are analyzed context-insensitively, and objects whose
+ * pointed-by-vars exceeds the threshold are not qualified by heap contexts.
+ * Such methods and objects are where context sensitivity is expensive,
+ * and usually contributes little precision.
+ *
+ * @see pascal.taie.analysis.pta.core.cs.selector.SelectiveSelector
+ */
+public class Introspective {
+
+    private static final Logger logger = LogManager.getLogger(Introspective.class);
+
+    private static final int DEFAULT_MAX_IN_FLOW = 100;
+
+    private static final int DEFAULT_MAX_OUT_FLOW = 100;
+
+    private static final int DEFAULT_MAX_VOLUME = 10000;
+
+    private static final int DEFAULT_MAX_POINTED_BY_VARS = 200;
+
+    private final PointerAnalysisResult pta;
+
+    private final int maxInFlow;
+
+    private final int maxOutFlow;
+
+    private final int maxVolume;
+
+    private final int maxPointedByVars;
+
+    private Set<JMethod> ciMethods;
+
+    private Set<Obj> ciObjs;
+
+    public Introspective(PointerAnalysisResult ciResult) {
+        this(ciResult, DEFAULT_MAX_IN_FLOW, DEFAULT_MAX_OUT_FLOW,
+                DEFAULT_MAX_VOLUME, DEFAULT_MAX_POINTED_BY_VARS);
+    }
+
+    /**
+     * Creates an introspective analysis whose thresholds are given by
+     * options "max-in-flow", "max-out-flow", "max-volume" and
+     * "max-pointed-by-vars". Absent options take the default thresholds.
+     */
+    public static Introspective of(PointerAnalysisResult ciResult,
+                                   AnalysisOptions options) {
+        return new Introspective(ciResult,
+                getThreshold(options, "max-in-flow", DEFAULT_MAX_IN_FLOW),
+                getThreshold(options, "max-out-flow", DEFAULT_MAX_OUT_FLOW),
+                getThreshold(options, "max-volume", DEFAULT_MAX_VOLUME),
+                getThreshold(options, "max-pointed-by-vars",
+                        DEFAULT_MAX_POINTED_BY_VARS));
+    }
+
+    private static int getThreshold(
+            AnalysisOptions options, String key, int defaultValue) {
+        return options.get(key) == null ? defaultValue : options.getInt(key);
+    }
+
+    /**
+     * @param ciResult         result of context-insensitive pre-analysis
+     * @param maxInFlow        threshold of in-flow of methods
+     * @param maxOutFlow       threshold of out-flow of methods
+     * @param maxVolume        threshold of points-to volume of methods
+     * @param maxPointedByVars threshold of pointed-by-vars of objects
+     */
+    public Introspective(PointerAnalysisResult ciResult,
+                         int maxInFlow, int maxOutFlow,
+                         int maxVolume, int maxPointedByVars) {
+        this.pta = ciResult;
+        this.maxInFlow = maxInFlow;
+        this.maxOutFlow = maxOutFlow;
+        this.maxVolume = maxVolume;
+        this.maxPointedByVars = maxPointedByVars;
+    }
+
+    /**
+     * @return the methods that should be analyzed context-insensitively.
+     */
+    public Set<JMethod> getCIMethods() {
+        if (ciMethods == null) {
+            computeCIMethods();
+        }
+        return ciMethods;
+    }
+
+    /**
+     * @return the objects that should not be qualified by heap contexts.
+     */
+    public Set<Obj> getCIObjects() {
+        if (ciObjs == null) {
+            computeCIObjects();
+        }
+        return ciObjs;
+    }
+
+    private void computeCIMethods() {
+        Set<JMethod> methods = Sets.newSet();
+        int nReachable = 0;
+        for (JMethod method : pta.getCallGraph().reachableMethods().toList()) {
+            ++nReachable;
+            IR ir = method.getIR();
+            int inFlow = ir.getThis() != null ? getPTSSize(ir.getThis()) : 0;
+            for (Var param : ir.getParams()) {
+                inFlow += getPTSSize(param);
+            }
+            int outFlow = 0;
+            for (Var ret : ir.getReturnVars()) {
+                outFlow += getPTSSize(ret);
+            }
+            int volume = 0;
+            for (Var var : ir.getVars()) {
+                volume += getPTSSize(var);
+            }
+            if (inFlow > maxInFlow || outFlow > maxOutFlow ||
+                    volume > maxVolume) {
+                methods.add(method);
+            }
+        }
+        logger.info("Introspective: {} of {} reachable methods are" +
+                " analyzed context-insensitively", methods.size(), nReachable);
+        ciMethods = Collections.unmodifiableSet(methods);
+    }
+
+    private void computeCIObjects() {
+        Map<Obj, Integer> pointedByVars = Maps.newMap();
+        for (Var var : pta.getVars()) {
+            for (Obj obj : pta.getPointsToSet(var)) {
+                pointedByVars.merge(obj, 1, Integer::sum);
+            }
+        }
+        Set<Obj> objs = Sets.newSet();
+        pointedByVars.forEach((obj, n) -> {
+            if (n > maxPointedByVars) {
+                objs.add(obj);
+            }
+        });
+        logger.info("Introspective: {} of {} objects are not qualified" +
+                " by heap contexts", objs.size(), pointedByVars.size());
+        ciObjs = Collections.unmodifiableSet(objs);
+    }
+
+    private int getPTSSize(Var var) {
+        return pta.getPointsToSet(var).size();
+    }
+}
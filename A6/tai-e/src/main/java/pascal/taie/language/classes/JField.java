@@ -22,11 +22,13 @@
 
 package pascal.taie.language.classes;
 
+import pascal.taie.World;
 import pascal.taie.ir.proginfo.FieldRef;
 import pascal.taie.language.annotation.AnnotationHolder;
 import pascal.taie.language.type.Type;
 
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Represents fields in the program. Each instance contains various
@@ -34,8 +36,19 @@ import java.util.Set;
  */
 public class JField extends ClassMember {
 
+    /**
+     * Counter of the indexes of the fields in current World.
+     */
+    private static final AtomicInteger counter = new AtomicInteger();
+
+    static {
+        World.registerResetCallback(() -> counter.set(0));
+    }
+
     private final Type type;
 
+    private final int index = counter.getAndIncrement();
+
     public JField(JClass declaringClass, String name, Set<Modifier> modifiers,
                   Type type, AnnotationHolder annotationHolder) {
         super(declaringClass, name, modifiers, annotationHolder);
@@ -47,6 +60,15 @@ public class JField extends ClassMember {
         return type;
     }
 
+    /**
+     * @return the index of this field. Fields are indexed in the order
+     * of creation, so the indexes of the fields in current World are
+     * dense, and can be used as keys of primitive-keyed tables.
+     */
+    public int getIndex() {
+        return index;
+    }
+
     /**
      * @return the {@link FieldRef} pointing to this field.
      */
@@ -163,6 +163,14 @@ public class JMethod extends ClassMember {
         return ir;
     }
 
+    /**
+     * Replaces the IR of this method, e.g., to simulate a change of
+     * the method body in tests.
+     */
+    void setIR(IR ir) {
+        this.ir = ir;
+    }
+
     /**
      * @return the {@link MethodRef} pointing to this method.
      */
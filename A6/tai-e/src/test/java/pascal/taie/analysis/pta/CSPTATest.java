@@ -23,7 +23,32 @@
 package pascal.taie.analysis.pta;
 
 import org.junit.Test;
+import pascal.taie.World;
 import pascal.taie.analysis.Tests;
+import pascal.taie.analysis.pta.cs.Budget;
+import pascal.taie.analysis.pta.cs.CSPTA;
+import pascal.taie.analysis.pta.cs.IncrementalCSPTA;
+import pascal.taie.config.AnalysisOptions;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.language.classes.ClassHierarchy;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.classes.MethodBodies;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
 
 public class CSPTATest {
 
@@ -49,6 +74,11 @@ public class CSPTATest {
         Tests.testCSPTA(DIR, "Call");
     }
 
+    @Test
+    public void testCallTypeFilter() {
+        Tests.testCSPTA(DIR, "Call", "type-filter:true");
+    }
+
     @Test
     public void testInstanceField() {
         Tests.testCSPTA(DIR, "InstanceField");
@@ -74,11 +104,212 @@ public class CSPTATest {
         Tests.testCSPTA(DIR, "TwoCall", "cs:2-call");
     }
 
+    @Test
+    public void testTwoCallCached() throws IOException {
+        Path cacheDir = Path.of("build/tmp/cspta-cache");
+        if (Files.exists(cacheDir)) {
+            try (Stream<Path> files = Files.list(cacheDir)) {
+                for (Path file : files.toList()) {
+                    Files.delete(file);
+                }
+            }
+        }
+        Tests.testCSPTA(DIR, "TwoCall", "cs:2-call", "cache-dir:" + cacheDir);
+        assertFalse(isFromCache());
+        // the second run reuses the result cached by the first run
+        Tests.testCSPTA(DIR, "TwoCall", "cs:2-call", "cache-dir:" + cacheDir);
+        assertTrue(isFromCache());
+    }
+
+    @Test
+    public void testTwoCallIncremental() {
+        // build the world of the test program
+        Tests.testCSPTA(DIR, "TwoCall", "cs:2-call");
+        AnalysisOptions options = makeOptions("cs", "2-call");
+        IncrementalCSPTA incremental = new IncrementalCSPTA(options);
+        // copying the IR replaces all variables and statements
+        ClassHierarchy hierarchy = World.get().getClassHierarchy();
+        List<JMethod> changed = List.of(
+                hierarchy.getMethod("<TwoCall: void m()>"),
+                hierarchy.getMethod("<A: B id(B)>"));
+        changed.forEach(method -> MethodBodies.replace(method, method));
+        PointerAnalysisResult updated = incremental.update(changed, List.of());
+        PointerAnalysisResult expected = new IncrementalCSPTA(options).getResult();
+        assertEquals(expected.getCallGraph().reachableMethods().collect(Collectors.toSet()),
+                updated.getCallGraph().reachableMethods().collect(Collectors.toSet()));
+        assertEquals(Set.copyOf(expected.getVars()), Set.copyOf(updated.getVars()));
+        for (Var var : expected.getVars()) {
+            assertEquals(var.toString(), getPointsToSet(expected, var),
+                    getPointsToSet(updated, var));
+        }
+    }
+
+    @Test
+    public void testIncrementalDeletion() {
+        // build the world of the test program
+        Tests.runCSPTA(DIR, "Incremental", "cs:1-obj");
+        AnalysisOptions options = makeOptions("cs", "1-obj");
+        IncrementalCSPTA incremental = new IncrementalCSPTA(options);
+        ClassHierarchy hierarchy = World.get().getClassHierarchy();
+        JMethod update = hierarchy.getMethod("<Incremental: void update(Box)>");
+        JMethod create = hierarchy.getMethod(
+                "<Incremental: java.lang.Object create()>");
+        Var x = getVar("<Incremental: void main(java.lang.String[])>", "x");
+        Var y = getVar("<Incremental: void main(java.lang.String[])>", "y");
+        PointerAnalysisResult old = incremental.getResult();
+        assertEquals(1, getPointsToSet(old, x).size()); // A
+        assertEquals(2, getPointsToSet(old, y).size()); // Incremental, B
+        List<Var> oldVars = update.getIR().getVars();
+        // update() drops an allocation, a field store and a call,
+        // and its callee create() is removed
+        MethodBodies.replace(update,
+                hierarchy.getMethod("<Incremental: void update2(Box)>"));
+        PointerAnalysisResult updated = incremental.update(
+                List.of(update), List.of(create));
+        PointerAnalysisResult expected = new IncrementalCSPTA(options).getResult();
+        // the points-to sets shrink to the ones solved from scratch
+        assertTrue(getPointsToSet(updated, x).isEmpty());
+        assertEquals(1, getPointsToSet(updated, y).size());
+        Set<Var> vars = new HashSet<>(expected.getVars());
+        vars.addAll(updated.getVars());
+        for (Var var : vars) {
+            assertEquals(var.toString(), getPointsToSet(expected, var),
+                    getPointsToSet(updated, var));
+        }
+        // the variables of the old IR and the removed callee are discarded
+        assertTrue(oldVars.stream().noneMatch(updated.getVars()::contains));
+        assertFalse(updated.getCallGraph().reachableMethods()
+                .anyMatch(create::equals));
+        // update() is reached again with re-derived receiver objects
+        assertTrue(updated.getCallGraph().reachableMethods()
+                .anyMatch(update::equals));
+        assertEquals(getPointsToSet(expected, update.getIR().getThis()),
+                getPointsToSet(updated, update.getIR().getThis()));
+        assertFalse(getPointsToSet(updated, update.getIR().getThis()).isEmpty());
+    }
+
+    @Test
+    public void testTwoCallBudget() {
+        // build the world of the test program
+        Tests.testCSPTA(DIR, "TwoCall", "cs:2-call");
+        PointerAnalysisResult precise = new IncrementalCSPTA(
+                makeOptions("cs", "1-call")).getResult();
+        // _id(B) receives both B and C objects under 1-call
+        PointerAnalysisResult degraded = new IncrementalCSPTA(
+                makeOptions("cs", "1-call", "pts-limit", 1)).getResult();
+        List<Budget.Degradation> degradations =
+                degraded.getResult(Budget.REPORT_KEY, List.of());
+        assertFalse(degradations.isEmpty());
+        assertEquals("pts-limit", degradations.get(0).reason());
+        // degradation loses precision, but the result is still sound
+        assertTrue(degraded.getCallGraph().reachableMethods()
+                .collect(Collectors.toSet())
+                .containsAll(precise.getCallGraph().reachableMethods().toList()));
+        for (Var var : precise.getVars()) {
+            assertTrue(var.toString(), getPointsToSet(degraded, var)
+                    .containsAll(getPointsToSet(precise, var)));
+        }
+    }
+
+    @Test
+    public void testTwoObjectTypeMerging() {
+        // build the world of the test program
+        Tests.testCSPTA(DIR, "TwoObject", "cs:2-obj");
+        PointerAnalysisResult result = new IncrementalCSPTA(makeOptions(
+                "cs", "2-obj", "heap-model", "type-merging")).getResult();
+        // Object has no fields, so its allocation sites are merged
+        Set<String> o1 = getPointsToSet(result, getVar("o1"));
+        assertEquals(1, o1.size());
+        assertEquals(o1, getPointsToSet(result, getVar("o2")));
+        // List has a field of reference type, so its sites are not merged
+        assertEquals(1, getPointsToSet(result, getVar("l1")).size());
+        assertNotEquals(getPointsToSet(result, getVar("l1")),
+                getPointsToSet(result, getVar("l2")));
+    }
+
+    @Test
+    public void testTwoObjectTypeMergingFanout() {
+        // build the world of the test program
+        Tests.testCSPTA(DIR, "TwoObject", "cs:2-obj");
+        // List has two allocation sites, which exceeds the fanout
+        PointerAnalysisResult result = new IncrementalCSPTA(makeOptions(
+                "cs", "2-obj", "heap-model", "type-merging",
+                "merge-fanout", 1)).getResult();
+        Set<String> l1 = getPointsToSet(result, getVar("l1"));
+        assertEquals(1, l1.size());
+        assertEquals(l1, getPointsToSet(result, getVar("l2")));
+    }
+
+    /**
+     * @return options of {@link IncrementalCSPTA}, i.e., given options
+     * and the default options of heap models.
+     */
+    private static AnalysisOptions makeOptions(Object... keyValues) {
+        Map<String, Object> options = new HashMap<>();
+        options.put("merge-string-constants", false);
+        options.put("merge-string-objects", false);
+        options.put("merge-string-builders", false);
+        options.put("merge-exception-objects", true);
+        for (int i = 0; i < keyValues.length; i += 2) {
+            options.put((String) keyValues[i], keyValues[i + 1]);
+        }
+        return new AnalysisOptions(options);
+    }
+
+    /**
+     * @return the variable of given name in TwoObject.m().
+     */
+    private static Var getVar(String name) {
+        return getVar("<TwoObject: void m()>", name);
+    }
+
+    /**
+     * @return the variable of given name in given method.
+     */
+    private static Var getVar(String method, String name) {
+        return World.get().getClassHierarchy()
+                .getMethod(method)
+                .getIR()
+                .getVars()
+                .stream()
+                .filter(var -> var.getName().equals(name))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    /**
+     * @return the points-to set of given variable, in which abstract
+     * objects are represented by strings, as each solve creates its own
+     * abstract objects.
+     */
+    private static Set<String> getPointsToSet(
+            PointerAnalysisResult result, Var var) {
+        return result.getPointsToSet(var)
+                .stream()
+                .map(Object::toString)
+                .collect(Collectors.toSet());
+    }
+
+    private static boolean isFromCache() {
+        PointerAnalysisResult result = World.get().getResult(CSPTA.ID);
+        return result.getResult(CSPTA.FROM_CACHE, false);
+    }
+
     @Test
     public void testTwoObject() {
         Tests.testCSPTA(DIR, "TwoObject", "cs:2-obj");
     }
 
+    @Test
+    public void testTwoObjectSelective() {
+        Tests.testCSPTA(DIR, "TwoObject", "cs:2-obj", "advanced:selective");
+    }
+
+    @Test
+    public void testTwoObjectSharedPts() {
+        Tests.testCSPTA(DIR, "TwoObject", "cs:2-obj", "pts-sharing:in-solve");
+    }
+
     @Test
     public void testTwoType() {
         Tests.testCSPTA(DIR, "TwoType", "cs:2-type");
@@ -93,4 +324,9 @@ public class CSPTATest {
     public void testArray() {
         Tests.testCSPTA(DIR, "Array");
     }
+
+    @Test
+    public void testArrayOffHeap() {
+        Tests.testCSPTA(DIR, "Array", "off-heap-pts:true");
+    }
 }
@@ -0,0 +1,144 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.language.classes;
+
+import pascal.taie.ir.DefaultIR;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.FieldAccess;
+import pascal.taie.ir.exp.InstanceFieldAccess;
+import pascal.taie.ir.exp.InvokeExp;
+import pascal.taie.ir.exp.InvokeInterface;
+import pascal.taie.ir.exp.InvokeSpecial;
+import pascal.taie.ir.exp.InvokeStatic;
+import pascal.taie.ir.exp.InvokeVirtual;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Copy;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.LoadField;
+import pascal.taie.ir.stmt.New;
+import pascal.taie.ir.stmt.Return;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.ir.stmt.StoreField;
+import pascal.taie.util.AnalysisException;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.Sets;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Changes method bodies for testing incremental analyses, as the classes
+ * of the world cannot be reloaded.
+ */
+public final class MethodBodies {
+
+    private MethodBodies() {
+    }
+
+    /**
+     * Replaces the body of a method by the body of another method of
+     * the same class, i.e., the new version of the method. The new IR
+     * consists of fresh variables and statements which belong to
+     * the replaced method.
+     * <p>
+     * Only straight-line bodies that consist of allocations, copies,
+     * instance field accesses, calls and returns are supported.
+     */
+    public static void replace(JMethod method, JMethod newVersion) {
+        IR ir = newVersion.getIR();
+        Map<Var, Var> varMap = Maps.newMap();
+        for (Var var : ir.getVars()) {
+            varMap.put(var, new Var(method, var.getName(), var.getType(),
+                    var.getIndex(),
+                    var.isTempConst() ? var.getTempConstValue() : null));
+        }
+        List<Stmt> stmts = ir.getStmts()
+                .stream()
+                .map(stmt -> {
+                    Stmt copy = copyStmt(method, stmt, varMap);
+                    copy.setIndex(stmt.getIndex());
+                    copy.setLineNumber(stmt.getLineNumber());
+                    return copy;
+                })
+                .toList();
+        Set<Var> returnVars = Sets.newSet();
+        ir.getReturnVars().forEach(var -> returnVars.add(varMap.get(var)));
+        method.setIR(new DefaultIR(method,
+                ir.getThis() == null ? null : varMap.get(ir.getThis()),
+                ir.getParams().stream().map(varMap::get).toList(),
+                returnVars,
+                ir.getVars().stream().map(varMap::get).toList(),
+                stmts, List.of()));
+    }
+
+    private static Stmt copyStmt(JMethod method, Stmt stmt, Map<Var, Var> varMap) {
+        if (stmt instanceof New newStmt) {
+            return new New(method, varMap.get(newStmt.getLValue()),
+                    newStmt.getRValue());
+        } else if (stmt instanceof Copy copy) {
+            return new Copy(varMap.get(copy.getLValue()),
+                    varMap.get(copy.getRValue()));
+        } else if (stmt instanceof LoadField load) {
+            return new LoadField(varMap.get(load.getLValue()),
+                    copyFieldAccess(load.getFieldAccess(), varMap));
+        } else if (stmt instanceof StoreField store) {
+            return new StoreField(copyFieldAccess(store.getFieldAccess(), varMap),
+                    varMap.get(store.getRValue()));
+        } else if (stmt instanceof Invoke invoke) {
+            Var result = invoke.getResult();
+            return new Invoke(method, copyInvokeExp(invoke.getInvokeExp(), varMap),
+                    result == null ? null : varMap.get(result));
+        } else if (stmt instanceof Return ret) {
+            Var value = ret.getValue();
+            return value == null ? new Return() : new Return(varMap.get(value));
+        }
+        throw new AnalysisException("Unsupported statement: " + stmt);
+    }
+
+    private static FieldAccess copyFieldAccess(
+            FieldAccess access, Map<Var, Var> varMap) {
+        return access instanceof InstanceFieldAccess instanceAccess ?
+                new InstanceFieldAccess(access.getFieldRef(),
+                        varMap.get(instanceAccess.getBase())) :
+                access; // static field accesses have no variables
+    }
+
+    private static InvokeExp copyInvokeExp(InvokeExp exp, Map<Var, Var> varMap) {
+        List<Var> args = exp.getArgs().stream().map(varMap::get).toList();
+        if (exp instanceof InvokeStatic) {
+            return new InvokeStatic(exp.getMethodRef(), args);
+        } else if (exp instanceof InvokeSpecial special) {
+            return new InvokeSpecial(exp.getMethodRef(),
+                    varMap.get(special.getBase()), args);
+        } else if (exp instanceof InvokeVirtual virtual) {
+            return new InvokeVirtual(exp.getMethodRef(),
+                    varMap.get(virtual.getBase()), args);
+        } else if (exp instanceof InvokeInterface itf) {
+            return new InvokeInterface(exp.getMethodRef(),
+                    varMap.get(itf.getBase()), args);
+        }
+        throw new AnalysisException("Unsupported invocation: " + exp);
+    }
+}
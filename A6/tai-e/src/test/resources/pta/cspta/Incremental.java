@@ -0,0 +1,42 @@
+class Incremental {
+
+    Object f;
+
+    public static void main(String[] args) {
+        Incremental inc = new Incremental();
+        Box box = new Box();
+        inc.update(box);
+        Object x = inc.f;
+        Object y = box.item;
+    }
+
+    void update(Box box) {
+        f = new A();
+        box.set(this);
+        box.set(create());
+    }
+
+    // new version of update(), which drops the allocation and
+    // the store of A object, and the call to removed create()
+    void update2(Box box) {
+        box.set(this);
+    }
+
+    static Object create() {
+        return new B();
+    }
+}
+
+class Box {
+    Object item;
+
+    void set(Object o) {
+        item = o;
+    }
+}
+
+class A {
+}
+
+class B {
+}
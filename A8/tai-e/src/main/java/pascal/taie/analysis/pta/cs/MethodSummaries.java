@@ -0,0 +1,269 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.pta.cs;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.ObjectCodec;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.config.ConfigException;
+import pascal.taie.language.classes.ClassHierarchy;
+import pascal.taie.language.classes.JField;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.type.Type;
+import pascal.taie.language.type.TypeSystem;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.Sets;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Declarative pointer-effect summaries of library methods. Calls to
+ * the summarized methods are modeled by their effects instead of
+ * analyzing the bodies of the methods.
+ * <p>
+ * A summary file is a list of methods with their effects, e.g.,
+ * <pre>
+ * - method: "&lt;java.lang.StringBuilder: java.lang.StringBuilder append(java.lang.String)&gt;"
+ *   effects:
+ *     - { from: base, to: result }          # return aliases receiver
+ *     - { from: 0, to: base.value }         # store argument to a field of receiver
+ * - method: "&lt;java.util.List: java.lang.Object get(int)&gt;"
+ *   effects:
+ *     - { from: base.element, to: result }  # load a field of receiver
+ * - method: "&lt;java.lang.Object: java.lang.String toString()&gt;"
+ *   effects:
+ *     - { new: java.lang.String, to: result } # allocate a mock object
+ * </pre>
+ * Variables are denoted by "base", "result" or argument indexes. Fields
+ * of receiver objects are denoted by "base." followed by either a field
+ * signature or the name of a pseudo-field (see {@link PseudoFields}).
+ * A method without "effects" is summarized as having no effect.
+ */
+class MethodSummaries {
+
+    private static final Logger logger = LogManager.getLogger(MethodSummaries.class);
+
+    /**
+     * Special number representing the base variable.
+     */
+    static final int BASE = -1;
+
+    /**
+     * Special number representing the variable that receives
+     * the result of the invocation.
+     */
+    static final int RESULT = -2;
+
+    private static final String FIELD_PREFIX = "base.";
+
+    /**
+     * Kinds of pointer effects.
+     */
+    enum Kind {
+        /**
+         * from -> to
+         */
+        COPY,
+        /**
+         * from -> base.field
+         */
+        STORE,
+        /**
+         * base.field -> to
+         */
+        LOAD,
+        /**
+         * new type -> to
+         */
+        ALLOC,
+    }
+
+    /**
+     * Pointer effect of a summarized method. Fields irrelevant to
+     * the kind are unused, i.e., -3 for indexes and null for others.
+     */
+    record Effect(Kind kind, int from, int to, JField field, Type type) {
+    }
+
+    private final Map<JMethod, Set<Effect>> summaries;
+
+    private MethodSummaries(Map<JMethod, Set<Effect>> summaries) {
+        this.summaries = summaries;
+    }
+
+    /**
+     * Reads method summaries from file.
+     *
+     * @param path       the path to the summary file
+     * @param hierarchy  the class hierarchy
+     * @param typeSystem the type manager
+     * @return the MethodSummaries object
+     * @throws ConfigException if failed to load the summary file
+     */
+    static MethodSummaries readSummaries(
+            String path, ClassHierarchy hierarchy, TypeSystem typeSystem) {
+        File file = new File(path);
+        ObjectMapper mapper = new ObjectMapper(new YAMLFactory());
+        SimpleModule module = new SimpleModule();
+        module.addDeserializer(MethodSummaries.class,
+                new Deserializer(hierarchy, typeSystem));
+        mapper.registerModule(module);
+        try {
+            MethodSummaries summaries = mapper.readValue(file, MethodSummaries.class);
+            logger.info("Loaded summaries of {} methods from {}",
+                    summaries.summaries.size(), file);
+            return summaries;
+        } catch (IOException e) {
+            throw new ConfigException("Failed to read method summary file " + file, e);
+        }
+    }
+
+    /**
+     * @return true if given method is summarized.
+     */
+    boolean isSummarized(JMethod method) {
+        return summaries.containsKey(method);
+    }
+
+    /**
+     * @return effects of given method.
+     */
+    Set<Effect> getEffectsOf(JMethod method) {
+        return summaries.getOrDefault(method, Set.of());
+    }
+
+    /**
+     * Deserializer for {@link MethodSummaries}.
+     */
+    private static class Deserializer extends JsonDeserializer<MethodSummaries> {
+
+        private final ClassHierarchy hierarchy;
+
+        private final TypeSystem typeSystem;
+
+        private Deserializer(ClassHierarchy hierarchy, TypeSystem typeSystem) {
+            this.hierarchy = hierarchy;
+            this.typeSystem = typeSystem;
+        }
+
+        @Override
+        public MethodSummaries deserialize(JsonParser p, DeserializationContext ctxt)
+                throws IOException {
+            ObjectCodec oc = p.getCodec();
+            JsonNode node = oc.readTree(p);
+            Map<JMethod, Set<Effect>> summaries = Maps.newMap();
+            if (node instanceof ArrayNode arrayNode) {
+                for (JsonNode elem : arrayNode) {
+                    String methodSig = elem.get("method").asText();
+                    JMethod method = hierarchy.getMethod(methodSig);
+                    if (method != null) {
+                        // if the method (given in summary file) is absent in
+                        // the class hierarchy, just ignore it.
+                        Set<Effect> effects = summaries.computeIfAbsent(
+                                method, m -> Sets.newSet());
+                        JsonNode effectsNode = elem.get("effects");
+                        if (effectsNode != null) {
+                            for (JsonNode effect : effectsNode) {
+                                effects.add(deserializeEffect(effect));
+                            }
+                        }
+                    } else {
+                        logger.warn("Cannot find summarized method '{}'", methodSig);
+                    }
+                }
+            }
+            return new MethodSummaries(summaries);
+        }
+
+        private Effect deserializeEffect(JsonNode node) {
+            String to = node.get("to").asText();
+            if (node.has("new")) {
+                Type type = typeSystem.getType(node.get("new").asText());
+                return new Effect(Kind.ALLOC, -3, toIndex(to), null, type);
+            }
+            String from = node.get("from").asText();
+            boolean fromField = isField(from), toField = isField(to);
+            if (fromField && toField) {
+                throw new ConfigException("Effect between two fields is" +
+                        " not supported: " + from + " -> " + to);
+            } else if (toField) {
+                return new Effect(Kind.STORE, toIndex(from), -3, toField(to), null);
+            } else if (fromField) {
+                return new Effect(Kind.LOAD, -3, toIndex(to), toField(from), null);
+            } else {
+                return new Effect(Kind.COPY, toIndex(from), toIndex(to), null, null);
+            }
+        }
+
+        private static boolean isField(String s) {
+            return s.startsWith(FIELD_PREFIX);
+        }
+
+        /**
+         * Converts "base.&lt;field signature&gt;" or "base.name" to field.
+         */
+        private JField toField(String s) {
+            String name = s.substring(FIELD_PREFIX.length());
+            if (name.startsWith("<")) {
+                JField field = hierarchy.getField(name);
+                if (field == null) {
+                    throw new ConfigException("Cannot find field '" + name + "'");
+                }
+                return field;
+            }
+            return PseudoFields.get(name);
+        }
+
+        /**
+         * Coverts string to index.
+         *
+         * @throws ConfigException if the string is not a valid index
+         */
+        private static int toIndex(String s) {
+            return switch (s.toLowerCase()) {
+                case "base" -> BASE;
+                case "result" -> RESULT;
+                default -> {
+                    try {
+                        yield Integer.parseInt(s);
+                    } catch (NumberFormatException e) {
+                        throw new ConfigException("Invalid index '" + s +
+                                "' in method summary", e);
+                    }
+                }
+            };
+        }
+    }
+}
@@ -38,6 +38,12 @@ class PointerFlowGraph {
      */
     private final MultiMap<Pointer, Pointer> successors = Maps.newMultiMap();
 
+    /**
+     * Map from a pointer (node) to its predecessors in PFG, which is
+     * built on demand and discarded when a new edge is added.
+     */
+    private MultiMap<Pointer, Pointer> predecessors;
+
     /**
      * Adds an edge (source -> target) to this PFG.
      *
@@ -45,7 +51,11 @@ class PointerFlowGraph {
      * otherwise false.
      */
     boolean addEdge(Pointer source, Pointer target) {
-        return successors.put(source, target);
+        if (successors.put(source, target)) {
+            predecessors = null;
+            return true;
+        }
+        return false;
     }
 
     /**
@@ -54,4 +64,15 @@ class PointerFlowGraph {
     Set<Pointer> getSuccsOf(Pointer pointer) {
         return successors.get(pointer);
     }
+
+    /**
+     * @return predecessors of given pointer in the PFG.
+     */
+    Set<Pointer> getPredsOf(Pointer pointer) {
+        if (predecessors == null) {
+            predecessors = Maps.newMultiMap();
+            successors.forEach((source, target) -> predecessors.put(target, source));
+        }
+        return predecessors.get(pointer);
+    }
 }
@@ -0,0 +1,64 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.pta.cs;
+
+import pascal.taie.World;
+import pascal.taie.language.annotation.AnnotationHolder;
+import pascal.taie.language.classes.ClassNames;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JField;
+import pascal.taie.util.collection.Maps;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Manages pseudo-fields (e.g., element, key and value of containers)
+ * used by summaries to model library methods without analyzing them.
+ * Pseudo-fields are declared in java.lang.Object, so that they exist
+ * in every object, and the pseudo-field of a name is unique in a World.
+ */
+public final class PseudoFields {
+
+    private static Map<String, JField> fields = Maps.newMap();
+
+    static {
+        World.registerResetCallback(() -> fields = Maps.newMap());
+    }
+
+    private PseudoFields() {
+    }
+
+    /**
+     * @return the pseudo-field of given name.
+     */
+    public static JField get(String name) {
+        return fields.computeIfAbsent(name, n -> {
+            JClass object = World.get().getClassHierarchy()
+                    .getJREClass(ClassNames.OBJECT);
+            return new JField(object, n, Set.of(),
+                    object.getType(), AnnotationHolder.emptyHolder());
+        });
+    }
+}
@@ -44,13 +44,16 @@ import pascal.taie.analysis.pta.core.cs.element.Pointer;
 import pascal.taie.analysis.pta.core.cs.element.StaticField;
 import pascal.taie.analysis.pta.core.cs.selector.ContextSelector;
 import pascal.taie.analysis.pta.core.heap.HeapModel;
+import pascal.taie.analysis.pta.core.heap.MockObj;
 import pascal.taie.analysis.pta.core.heap.Obj;
 import pascal.taie.analysis.pta.plugin.taint.TaintAnalysiss;
+import pascal.taie.analysis.pta.plugin.taint.TaintProvenance;
 import pascal.taie.analysis.pta.pts.PointsToSet;
 import pascal.taie.analysis.pta.pts.PointsToSetFactory;
 import pascal.taie.config.AnalysisOptions;
 import pascal.taie.ir.IR;
 import pascal.taie.ir.exp.InvokeExp;
+import pascal.taie.ir.exp.InvokeInstanceExp;
 import pascal.taie.ir.exp.Var;
 import pascal.taie.ir.stmt.Copy;
 import pascal.taie.ir.stmt.Invoke;
@@ -63,7 +66,11 @@ import pascal.taie.ir.stmt.StoreField;
 import pascal.taie.language.classes.JField;
 import pascal.taie.language.classes.JMethod;
 import pascal.taie.language.type.Type;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.Pair;
+import pascal.taie.util.collection.Sets;
 
+import java.util.BitSet;
 import java.util.Map;
 import java.util.Set;
 
@@ -71,6 +78,11 @@ public class Solver {
 
     private static final Logger logger = LogManager.getLogger(Solver.class);
 
+    /**
+     * Description of the mock objects allocated by method summaries.
+     */
+    private static final String SUMMARY_DESC = "SummaryObj";
+
     private final AnalysisOptions options;
 
     private final HeapModel heapModel;
@@ -87,6 +99,27 @@ public class Solver {
     private StmtProcessor stmtProcessor;
     private TaintAnalysiss taintAnalysis;
 
+    /**
+     * Provenance recorder of taint objects, or null if disabled.
+     */
+    private TaintProvenance provenance;
+
+    /**
+     * Taint labels of pointers, only used when taints are represented
+     * as labels instead of taint objects.
+     */
+    private final Map<Pointer, BitSet> taintLabels = Maps.newMap();
+
+    /**
+     * Summaries of library methods, or null if not given.
+     */
+    private MethodSummaries summaries;
+
+    /**
+     * Summarized calls whose receiver-independent effects have been applied.
+     */
+    private final Set<Pair<CSCallSite, JMethod>> summarizedCalls = Sets.newSet();
+
     private PointerAnalysisResult result;
 
     Solver(AnalysisOptions options, HeapModel heapModel,
@@ -119,7 +152,16 @@ public class Solver {
         callGraph = new CSCallGraph(csManager);
         pointerFlowGraph = new PointerFlowGraph();
         workList = new WorkList();
+        String summaryPath = options.getString("summaries");
+        if (summaryPath != null) {
+            summaries = MethodSummaries.readSummaries(summaryPath,
+                    World.get().getClassHierarchy(), World.get().getTypeSystem());
+        }
         taintAnalysis = new TaintAnalysiss(this);
+        provenance = taintAnalysis.getProvenance();
+        if (provenance != null) {
+            provenance.setPredecessors(pointerFlowGraph::getPredsOf);
+        }
         // process program entry, i.e., main method
         Context defContext = contextSelector.getEmptyContext();
         JMethod main = World.get().getMainMethod();
@@ -135,15 +177,27 @@ public class Solver {
         if(!callGraph.contains(csMethod)){
             callGraph.addReachableMethod(csMethod);
             IR ir = csMethod.getMethod().getIR();
+            taintAnalysis.onNewMethod(csMethod.getMethod());
             ir.forEach(stmt->{
                 stmtProcessor = new StmtProcessor(csMethod);
                 stmt.accept(stmtProcessor);
-                if(stmt instanceof  Invoke){ // handle source
+                if(stmt instanceof  Invoke && taintAnalysis.isLabelMode()){
+                    int label = taintAnalysis.getTaintLabel(stmt);
+                    if (label >= 0) {
+                        BitSet labels = new BitSet();
+                        labels.set(label);
+                        workList.addLabelEntry(csManager.getCSVar(
+                                csMethod.getContext(), ((Invoke) stmt).getLValue()), labels);
+                    }
+                } else if(stmt instanceof  Invoke){ // handle source
                     Obj taintobj = taintAnalysis.getTaintObj(stmt);
                     if(taintobj!=null){
                         CSObj cto = csManager.getCSObj(contextSelector.getEmptyContext(),taintobj);
                         CSVar cvar = csManager.getCSVar(csMethod.getContext(),((Invoke) stmt).getLValue());
                         workList.addEntry(cvar,PointsToSetFactory.make(cto));
+                        if (provenance != null) {
+                            provenance.recordSource(cvar, cto);
+                        }
                     }
                 }
             });
@@ -202,6 +256,10 @@ public class Solver {
         public Void visit(Invoke stmt) {
             if(stmt.isStatic()){
                 JMethod m = stmt.getMethodRef().resolve();
+                if (summaries != null && summaries.isSummarized(m)) {
+                    applySummary(context, stmt, m, null);
+                    return StmtVisitor.super.visit(stmt);
+                }
 
                 CSCallSite csc = csManager.getCSCallSite(context,stmt);
                 Context ct = contextSelector.selectContext(csc,m);
@@ -240,6 +298,10 @@ public class Solver {
             if(!ptss.isEmpty()){
                 workList.addEntry(target,ptss);
             }
+            BitSet labels = taintLabels.get(source);
+            if (labels != null) {
+                workList.addLabelEntry(target, (BitSet) labels.clone());
+            }
         }
     }
 
@@ -248,9 +310,20 @@ public class Solver {
      */
     private void analyze() {
         while(!workList.isEmpty()){
+            WorkList.LabelEntry le = workList.pollLabelEntry();
+            if (le != null) {
+                propagateLabels(le.pointer(), le.labels());
+                continue;
+            }
             WorkList.Entry et =workList.pollEntry();
             Pointer n = et.pointer();
             PointsToSet pts = et.pointsToSet();
+            if (n instanceof CSVar csVar) {
+                int kill = taintAnalysis.getKillMask(csVar.getVar());
+                if (kill != 0) {
+                    pts = sanitize(n, pts, kill);
+                }
+            }
             PointsToSet delta = propagate(n,pts);
             if(n instanceof CSVar){
                 Var x = ((CSVar) n).getVar();
@@ -273,17 +346,143 @@ public class Solver {
                         addPFGEdge(csManager.getCSVar(c,sa.getRValue()),
                                 csManager.getArrayIndex(o));
                     }
+                    for (TaintAnalysiss.BaseFieldTransfer ft :
+                            taintAnalysis.getBaseFieldTransfers(x)) {
+                        InstanceField field = csManager.getInstanceField(o, ft.field());
+                        CSVar var = csManager.getCSVar(c, ft.var());
+                        if (ft.store()) { // var -> x.field
+                            addPFGEdge(var, field);
+                        } else { // x.field -> var
+                            addPFGEdge(field, var);
+                        }
+                    }
                     CSVar cx = csManager.getCSVar(c,x);
                     processCall(cx,o);
-                    Map<Pointer,PointsToSet> taintmap = taintAnalysis.taintpropagate(cx,o,x.getMethod());
-                    taintmap.forEach((pointer,pointstoset)->{
-                        workList.addEntry(pointer,pointstoset);
-                    });
                 }
+                processTaintTransfers((CSVar) n, delta);
             }
         }
         // TODO - finish me
     }
+    /**
+     * Transfers the taint objects in delta along the taint transfers
+     * whose "from" variable is the variable of csVar.
+     */
+    private void processTaintTransfers(CSVar csVar, PointsToSet delta) {
+        TaintAnalysiss.VarTransfer[] transfers =
+                taintAnalysis.getVarTransfers(csVar.getVar());
+        if (transfers.length == 0) {
+            return;
+        }
+        for (TaintAnalysiss.VarTransfer transfer : transfers) {
+            CSVar target = csManager.getCSVar(csVar.getContext(), transfer.target());
+            PointsToSet taints = null;
+            for (CSObj o : delta) {
+                if (taintAnalysis.isTaint(o)) {
+                    CSObj taint = taintAnalysis.transferTaint(o, transfer);
+                    if (taint == null) {
+                        continue; // no common config
+                    }
+                    if (taints == null) {
+                        taints = PointsToSetFactory.make();
+                    }
+                    taints.addObject(taint);
+                    if (provenance != null) {
+                        provenance.recordTransfer(csVar, o, target, taint);
+                    }
+                }
+            }
+            if (taints != null) {
+                workList.addEntry(target, taints);
+            }
+        }
+    }
+
+    /**
+     * Propagates taint labels to the labels of pointer, its PFG successors
+     * and "this" of the callees on it, and applies the taint transfers of
+     * the pointer to the new labels.
+     */
+    private void propagateLabels(Pointer pointer, BitSet labels) {
+        if (pointer instanceof CSVar csVar) {
+            int kill = taintAnalysis.getKillMask(csVar.getVar());
+            if (kill != 0) {
+                BitSet remaining = new BitSet();
+                labels.stream().forEach(label -> {
+                    int l = taintAnalysis.sanitizeLabel(label, kill);
+                    if (l >= 0) {
+                        remaining.set(l);
+                    }
+                });
+                labels = remaining;
+            }
+        }
+        BitSet old = taintLabels.computeIfAbsent(pointer, p -> new BitSet());
+        BitSet delta = (BitSet) labels.clone();
+        delta.andNot(old);
+        if (delta.isEmpty()) {
+            return;
+        }
+        old.or(delta);
+        for (Pointer s : pointerFlowGraph.getSuccsOf(pointer)) {
+            workList.addLabelEntry(s, delta);
+        }
+        if (pointer instanceof CSVar csVar) {
+            // receiver labels flow to "this" of the callees, which are
+            // not connected to the receiver in the PFG
+            for (Invoke invoke : csVar.getVar().getInvokes()) {
+                CSCallSite cs = csManager.getCSCallSite(csVar.getContext(), invoke);
+                for (CSMethod callee : callGraph.getCalleesOf(cs)) {
+                    workList.addLabelEntry(csManager.getCSVar(callee.getContext(),
+                            callee.getMethod().getIR().getThis()), delta);
+                }
+            }
+            for (TaintAnalysiss.VarTransfer transfer :
+                    taintAnalysis.getVarTransfers(csVar.getVar())) {
+                BitSet transferred = new BitSet();
+                delta.stream().forEach(label -> {
+                    int newLabel = taintAnalysis.transferLabel(label, transfer);
+                    if (newLabel >= 0) {
+                        transferred.set(newLabel);
+                    }
+                });
+                if (!transferred.isEmpty()) {
+                    workList.addLabelEntry(csManager.getCSVar(
+                            csVar.getContext(), transfer.target()), transferred);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return pts, which arrives at pointer, with the taints of
+     * the configurations in kill removed.
+     */
+    private PointsToSet sanitize(Pointer pointer, PointsToSet pts, int kill) {
+        PointsToSet res = PointsToSetFactory.make();
+        for (CSObj o : pts) {
+            if (taintAnalysis.isTaint(o)) {
+                CSObj remaining = taintAnalysis.sanitize(o, kill);
+                if (remaining != null) {
+                    res.addObject(remaining);
+                    if (provenance != null && remaining != o) {
+                        provenance.recordSanitize(pointer, o, remaining);
+                    }
+                }
+            } else {
+                res.addObject(o);
+            }
+        }
+        return res;
+    }
+
+    /**
+     * @return taint labels of given pointer, or null if it has none.
+     */
+    public BitSet getTaintLabels(Pointer pointer) {
+        return taintLabels.get(pointer);
+    }
+
     private  PointsToSet minus(PointsToSet a,PointsToSet b){ // a - b
         PointsToSet res = PointsToSetFactory.make();
         for(CSObj o:a){
@@ -322,12 +521,34 @@ public class Solver {
     private void processCall(CSVar recv, CSObj recvObj) {
         for(Invoke invoke : recv.getVar().getInvokes()){
             JMethod m = resolveCallee(recvObj,invoke);
+            if (summaries != null) {
+                // the summary of the method ref covers the dispatched
+                // callee only if the callee is also a library method
+                JMethod summarized = summaries.isSummarized(m) ||
+                        m.getDeclaringClass().isApplication() ? m :
+                        invoke.getMethodRef().resolve();
+                if (summaries.isSummarized(summarized)) {
+                    applySummary(recv.getContext(), invoke, summarized, recvObj);
+                    continue;
+                }
+            }
+            if (taintAnalysis.isSummarized(invoke, m)) {
+                continue; // modeled by field transfers of the call
+            }
             Var mthis = m.getIR().getThis();
             Context c = recv.getContext();
             CSCallSite cs = csManager.getCSCallSite(c,invoke);//c:l
             Context ct = contextSelector.selectContext(cs,recvObj,m);
             CSMethod ctm = csManager.getCSMethod(ct,m);
-            workList.addEntry(csManager.getCSVar(ct,mthis),PointsToSetFactory.make(recvObj));
+            CSVar csThis = csManager.getCSVar(ct,mthis);
+            workList.addEntry(csThis,PointsToSetFactory.make(recvObj));
+            BitSet recvLabels = taintLabels.get(recv);
+            if (recvLabels != null) {
+                workList.addLabelEntry(csThis, (BitSet) recvLabels.clone());
+            }
+            if (provenance != null) {
+                provenance.recordReceiver(recv, csThis, recvObj);
+            }
             if(callGraph.addEdge(new Edge<>(CallGraphs.getCallKind(invoke),cs,ctm))){
                 addReachable(ctm);
                 int size = m.getIR().getParams().size();
@@ -348,6 +569,68 @@ public class Solver {
         // TODO - finish me
     }
 
+    /**
+     * Applies the summary of callee to a call site instead of analyzing
+     * the callee. Effects on receiver objects are applied to recvObj
+     * (null for static calls), and other effects are applied only once
+     * for each (call site, callee).
+     */
+    private void applySummary(Context c, Invoke invoke, JMethod callee, CSObj recvObj) {
+        boolean first = summarizedCalls.add(
+                new Pair<>(csManager.getCSCallSite(c, invoke), callee));
+        for (MethodSummaries.Effect effect : summaries.getEffectsOf(callee)) {
+            switch (effect.kind()) {
+                case COPY -> {
+                    Var from = getVarAt(invoke, effect.from());
+                    Var to = getVarAt(invoke, effect.to());
+                    if (first && from != null && to != null) {
+                        addPFGEdge(csManager.getCSVar(c, from), csManager.getCSVar(c, to));
+                    }
+                }
+                case ALLOC -> {
+                    Var to = getVarAt(invoke, effect.to());
+                    if (first && to != null) {
+                        Obj obj = new MockObj(SUMMARY_DESC, invoke, effect.type(),
+                                invoke.getContainer());
+                        CSMethod caller = csManager.getCSMethod(c, invoke.getContainer());
+                        CSObj csObj = csManager.getCSObj(
+                                contextSelector.selectHeapContext(caller, obj), obj);
+                        workList.addEntry(csManager.getCSVar(c, to),
+                                PointsToSetFactory.make(csObj));
+                    }
+                }
+                case STORE -> {
+                    Var from = getVarAt(invoke, effect.from());
+                    if (recvObj != null && from != null) {
+                        addPFGEdge(csManager.getCSVar(c, from),
+                                csManager.getInstanceField(recvObj, effect.field()));
+                    }
+                }
+                case LOAD -> {
+                    Var to = getVarAt(invoke, effect.to());
+                    if (recvObj != null && to != null) {
+                        addPFGEdge(csManager.getInstanceField(recvObj, effect.field()),
+                                csManager.getCSVar(c, to));
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the variable at given index of the invocation, or null
+     * if it does not exist.
+     */
+    private static Var getVarAt(Invoke invoke, int index) {
+        InvokeExp ie = invoke.getInvokeExp();
+        return switch (index) {
+            case MethodSummaries.BASE -> ie instanceof InvokeInstanceExp iie ?
+                    iie.getBase() : null;
+            case MethodSummaries.RESULT -> invoke.getLValue();
+            default -> index >= 0 && index < ie.getArgCount() ? ie.getArg(index) : null;
+        };
+    }
+
     /**
      * Resolves the callee of a call site with the receiver object.
      *
@@ -26,6 +26,7 @@ import pascal.taie.analysis.pta.core.cs.element.Pointer;
 import pascal.taie.analysis.pta.pts.PointsToSet;
 
 import java.util.ArrayDeque;
+import java.util.BitSet;
 import java.util.Queue;
 
 /**
@@ -35,6 +36,8 @@ class WorkList {
 
     private final Queue<Entry> entries = new ArrayDeque<>();
 
+    private final Queue<LabelEntry> labelEntries = new ArrayDeque<>();
+
     /**
      * Adds an entry to the work list.
      */
@@ -42,6 +45,21 @@ class WorkList {
         entries.add(new Entry(pointer, pointsToSet));
     }
 
+    /**
+     * Adds an entry of taint labels to the work list.
+     */
+    void addLabelEntry(Pointer pointer, BitSet labels) {
+        labelEntries.add(new LabelEntry(pointer, labels));
+    }
+
+    /**
+     * Retrieves and removes an entry of taint labels, or returns null
+     * if there is no such entry.
+     */
+    LabelEntry pollLabelEntry() {
+        return labelEntries.poll();
+    }
+
     /**
      * Retrieves and removes an entry from this queue, or returns null
      * if this work list is empty.
@@ -54,7 +72,7 @@ class WorkList {
      * @return true if the work list is empty, otherwise false.
      */
     boolean isEmpty() {
-        return entries.isEmpty();
+        return entries.isEmpty() && labelEntries.isEmpty();
     }
 
     /**
@@ -63,4 +81,10 @@ class WorkList {
      */
     record Entry(Pointer pointer, PointsToSet pointsToSet) {
     }
+
+    /**
+     * Represents entries of taint labels in the work list.
+     */
+    record LabelEntry(Pointer pointer, BitSet labels) {
+    }
 }
@@ -0,0 +1,61 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.pta.plugin.taint;
+
+import pascal.taie.language.classes.JMethod;
+
+/**
+ * Represents transfer between a variable and a pseudo-field (e.g.,
+ * element, key and value) of the objects pointed to by the base variable
+ * of calls to specific method. Such transfers summarize containers,
+ * so that their internals need not be analyzed.
+ * <ul>
+ *     <li>method: the method that causes the transfer
+ *     <li>index: the index of the variable
+ *     <li>field: the name of the pseudo-field
+ *     <li>store: true if the transfer is "variable -> base.field",
+ *     false if it is "base.field -> variable"
+ * </ul>
+ */
+record FieldTransfer(JMethod method, int index, String field, boolean store) {
+
+    /**
+     * Prefix of the field paths in taint transfers, e.g., "base.element".
+     */
+    static final String BASE_PREFIX = "base.";
+
+    /**
+     * @return true if given string denotes a pseudo-field of base variable.
+     */
+    static boolean isFieldPath(String s) {
+        return s.toLowerCase().startsWith(BASE_PREFIX);
+    }
+
+    @Override
+    public String toString() {
+        String var = TaintTransfer.toString(index);
+        String path = BASE_PREFIX + field;
+        return method + ": " + (store ? var + " -> " + path : path + " -> " + var);
+    }
+}
@@ -0,0 +1,356 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.pta.plugin.taint;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.World;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.InvokeExp;
+import pascal.taie.ir.exp.InvokeInstanceExp;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Cast;
+import pascal.taie.ir.stmt.Copy;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.LoadArray;
+import pascal.taie.ir.stmt.LoadField;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.ir.stmt.StoreArray;
+import pascal.taie.ir.stmt.StoreField;
+import pascal.taie.language.classes.ClassHierarchy;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JField;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.MultiMap;
+import pascal.taie.util.collection.Sets;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+
+/**
+ * Sink-directed pre-analysis for pruning taint propagation.
+ * <p>
+ * Starting from the arguments of sink calls, this analysis explores
+ * backward along the statements that may propagate objects, i.e.,
+ * copies, casts, field/array stores and loads (field-based), parameter
+ * passing and returns (over a CHA call graph) and taint transfers.
+ * A sink is excluded if no source call can be reached backward from
+ * its argument; the exploration of a sink stops as soon as a source
+ * call is reached. The variables visited from the remaining sinks form
+ * the slice which taint objects need to be propagated in.
+ * <p>
+ * The analysis is context- and flow-insensitive, and thus
+ * over-approximates the taint flows found by the pointer analysis.
+ * The slice only prunes the creation and transfer of taint objects:
+ * the pointer analysis itself still analyzes the whole program, as
+ * the aliases which taint flows depend on, and the other clients of
+ * the pointer analysis, need points-to sets outside the slice.
+ */
+class SinkDirectedSlice {
+
+    private static final Logger logger = LogManager.getLogger(SinkDirectedSlice.class);
+
+    /**
+     * Node representing the elements of all arrays.
+     */
+    private static final Object ARRAY = new Object();
+
+    /**
+     * Prefix of the nodes representing pseudo-fields of containers.
+     */
+    private static final String PSEUDO_FIELD = "pseudo-field:";
+
+    private final List<TaintConfig> configs;
+
+    private final ClassHierarchy hierarchy;
+
+    /**
+     * Backward value-flow edges: node -> nodes whose values may flow to it.
+     * A node is a {@link Var}, a {@link JField}, {@link #ARRAY}
+     * or a pseudo-field (a string starting with {@link #PSEUDO_FIELD}).
+     */
+    private final MultiMap<Object, Object> preds = Maps.newMultiMap();
+
+    /**
+     * Map from result variables of source calls to the source calls.
+     */
+    private final MultiMap<Var, Invoke> sourceVars = Maps.newMultiMap();
+
+    /**
+     * Sink calls and their sensitive indexes.
+     */
+    private final MultiMap<Invoke, Integer> sinkCalls = Maps.newMultiMap();
+
+    private final Set<JMethod> reachableMethods = Sets.newSet();
+
+    private final Set<Var> relevantVars = Sets.newSet();
+
+    private final Set<Invoke> relevantSources = Sets.newSet();
+
+    private final MultiMap<Invoke, Integer> relevantSinks = Maps.newMultiMap();
+
+    private SinkDirectedSlice(List<TaintConfig> configs, ClassHierarchy hierarchy) {
+        this.configs = configs;
+        this.hierarchy = hierarchy;
+    }
+
+    /**
+     * Computes the slice of the program starting from the entry method
+     * for the sources, sinks and transfers of all given configurations.
+     */
+    static SinkDirectedSlice compute(List<TaintConfig> configs) {
+        SinkDirectedSlice slice = new SinkDirectedSlice(
+                configs, World.get().getClassHierarchy());
+        slice.buildGraph(World.get().getMainMethod());
+        slice.slice();
+        return slice;
+    }
+
+    /**
+     * @return true if given variable may receive taint objects which
+     * can flow to sinks.
+     */
+    boolean isRelevant(Var var) {
+        return relevantVars.contains(var);
+    }
+
+    /**
+     * @return true if taint objects created at given source call
+     * may reach sinks.
+     */
+    boolean isRelevantSource(Invoke sourceCall) {
+        return relevantSources.contains(sourceCall);
+    }
+
+    /**
+     * @return true if the argument at given index of the sink call
+     * may be reached by taint objects.
+     */
+    boolean isRelevantSink(Invoke sinkCall, int index) {
+        return relevantSinks.contains(sinkCall, index);
+    }
+
+    /**
+     * Builds backward value-flow edges for the methods reachable
+     * from entry over the CHA call graph.
+     */
+    private void buildGraph(JMethod entry) {
+        Queue<JMethod> workList = new ArrayDeque<>();
+        reachableMethods.add(entry);
+        workList.add(entry);
+        while (!workList.isEmpty()) {
+            JMethod method = workList.poll();
+            for (Stmt stmt : method.getIR()) {
+                if (stmt instanceof Copy copy) {
+                    preds.put(copy.getLValue(), copy.getRValue());
+                } else if (stmt instanceof Cast cast) {
+                    preds.put(cast.getLValue(), cast.getRValue().getValue());
+                } else if (stmt instanceof LoadField load) {
+                    JField field = load.getFieldRef().resolveNullable();
+                    if (field != null) {
+                        preds.put(load.getLValue(), field);
+                    }
+                } else if (stmt instanceof StoreField store) {
+                    JField field = store.getFieldRef().resolveNullable();
+                    if (field != null) {
+                        preds.put(field, store.getRValue());
+                    }
+                } else if (stmt instanceof LoadArray load) {
+                    preds.put(load.getLValue(), ARRAY);
+                } else if (stmt instanceof StoreArray store) {
+                    preds.put(ARRAY, store.getRValue());
+                } else if (stmt instanceof Invoke invoke) {
+                    for (JMethod callee : resolveCallees(invoke)) {
+                        if (reachableMethods.add(callee)) {
+                            workList.add(callee);
+                        }
+                        addCallEdges(invoke, callee);
+                    }
+                    addTaintEdges(invoke);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return callees of given invocation on CHA call graph.
+     */
+    private Set<JMethod> resolveCallees(Invoke invoke) {
+        Set<JMethod> callees = Sets.newSet();
+        if (invoke.isDynamic()) {
+            return callees;
+        }
+        if (invoke.isStatic() || invoke.isSpecial()) {
+            JMethod callee = invoke.getMethodRef().resolveNullable();
+            if (callee != null) {
+                callees.add(callee);
+            }
+        } else {
+            JClass declaring = invoke.getMethodRef().getDeclaringClass();
+            for (JClass jclass : hierarchy.getAllSubclassesOf(declaring, true)) {
+                JMethod callee = hierarchy.dispatch(jclass, invoke.getMethodRef());
+                if (callee != null && !callee.isAbstract()) {
+                    callees.add(callee);
+                }
+            }
+        }
+        return callees;
+    }
+
+    private void addCallEdges(Invoke invoke, JMethod callee) {
+        IR ir = callee.getIR();
+        InvokeExp ie = invoke.getInvokeExp();
+        for (int i = 0; i < ie.getArgCount() && i < ir.getParams().size(); ++i) {
+            preds.put(ir.getParam(i), ie.getArg(i));
+        }
+        if (ie instanceof InvokeInstanceExp iie && ir.getThis() != null) {
+            preds.put(ir.getThis(), iie.getBase());
+        }
+        Var lhs = invoke.getLValue();
+        if (lhs != null) {
+            ir.getReturnVars().forEach(ret -> preds.put(lhs, ret));
+        }
+    }
+
+    private void addTaintEdges(Invoke invoke) {
+        JMethod method = invoke.getMethodRef().resolveNullable();
+        if (method == null) {
+            return;
+        }
+        InvokeExp ie = invoke.getInvokeExp();
+        Var base = ie instanceof InvokeInstanceExp iie ? iie.getBase() : null;
+        Var lhs = invoke.getLValue();
+        for (TaintConfig config : configs) {
+            if (lhs != null) {
+                config.getSourcesOf(method).forEach(source -> {
+                    if (source.type().equals(ie.getType())) {
+                        sourceVars.put(lhs, invoke);
+                    }
+                });
+            }
+            config.getSinksOf(method).forEach(sink ->
+                    sinkCalls.put(invoke, sink.index()));
+        }
+        if (base != null) {
+            for (TaintConfig config : configs) {
+                for (FieldTransfer transfer : config.getFieldTransfersOf(method)) {
+                    Var var = switch (transfer.index()) {
+                        case TaintTransfer.BASE -> base;
+                        case TaintTransfer.RESULT -> lhs;
+                        default -> transfer.index() < ie.getArgCount() ?
+                                ie.getArg(transfer.index()) : null;
+                    };
+                    if (var != null) {
+                        // pseudo-fields are field-based, as other fields
+                        String field = PSEUDO_FIELD + transfer.field();
+                        if (transfer.store()) {
+                            preds.put(field, var);
+                        } else {
+                            preds.put(var, field);
+                        }
+                    }
+                }
+            }
+        }
+        for (int from = TaintTransfer.BASE; from < ie.getArgCount(); ++from) {
+            Var fromVar = from == TaintTransfer.BASE ? base : ie.getArg(from);
+            if (fromVar == null) {
+                continue;
+            }
+            for (TaintConfig config : configs) {
+                for (TaintTransfer transfer : config.getTransfersOf(method, from)) {
+                    Var toVar = switch (transfer.to()) {
+                        case TaintTransfer.BASE -> base;
+                        case TaintTransfer.RESULT -> lhs;
+                        default -> null;
+                    };
+                    if (toVar != null) {
+                        preds.put(toVar, fromVar);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Determines the relevant sinks, and then the slice from them.
+     */
+    private void slice() {
+        sinkCalls.forEach((sinkCall, index) -> {
+            Var arg = sinkCall.getInvokeExp().getArg(index);
+            if (reachesSource(arg)) {
+                relevantSinks.put(sinkCall, index);
+            }
+        });
+        Queue<Object> workList = new ArrayDeque<>();
+        Set<Object> visited = Sets.newSet();
+        relevantSinks.forEach((sinkCall, index) -> {
+            Var arg = sinkCall.getInvokeExp().getArg(index);
+            if (visited.add(arg)) {
+                workList.add(arg);
+            }
+        });
+        while (!workList.isEmpty()) {
+            Object node = workList.poll();
+            if (node instanceof Var var) {
+                relevantVars.add(var);
+                relevantSources.addAll(sourceVars.get(var));
+            }
+            for (Object pred : preds.get(node)) {
+                if (visited.add(pred)) {
+                    workList.add(pred);
+                }
+            }
+        }
+        logger.info("Sink-directed slice: {}/{} sinks, {} sources, {} variables",
+                relevantSinks.size(), sinkCalls.size(),
+                relevantSources.size(), relevantVars.size());
+    }
+
+    /**
+     * @return true if any source call can be reached backward from given
+     * variable. The exploration stops as soon as one is reached.
+     */
+    private boolean reachesSource(Var var) {
+        Queue<Object> workList = new ArrayDeque<>();
+        Set<Object> visited = Sets.newSet();
+        workList.add(var);
+        visited.add(var);
+        while (!workList.isEmpty()) {
+            Object node = workList.poll();
+            if (node instanceof Var v && sourceVars.containsKey(v)) {
+                return true;
+            }
+            for (Object pred : preds.get(node)) {
+                if (visited.add(pred)) {
+                    workList.add(pred);
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -25,24 +25,34 @@ package pascal.taie.analysis.pta.plugin.taint;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import pascal.taie.World;
-import pascal.taie.analysis.pta.PointerAnalysisResult;
 import pascal.taie.analysis.pta.core.cs.context.Context;
 import pascal.taie.analysis.pta.core.cs.element.*;
+import pascal.taie.analysis.pta.cs.PseudoFields;
 import pascal.taie.analysis.pta.cs.Solver;
-import pascal.taie.analysis.pta.pts.PointsToSet;
-import pascal.taie.analysis.pta.pts.PointsToSetFactory;
+import pascal.taie.config.AnalysisOptions;
+import pascal.taie.config.ConfigException;
+import pascal.taie.ir.IR;
 import pascal.taie.ir.exp.InvokeExp;
 import pascal.taie.ir.exp.InvokeInstanceExp;
 import pascal.taie.ir.exp.Var;
 import pascal.taie.ir.stmt.Invoke;
 
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
 import pascal.taie.analysis.pta.core.heap.Obj;
 import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.JField;
 import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.type.Type;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.MultiMap;
+import pascal.taie.util.collection.Sets;
 
 public class TaintAnalysiss {
 
@@ -50,7 +60,13 @@ public class TaintAnalysiss {
 
     private final TaintManager manager;
 
-    private final TaintConfig config;
+    /**
+     * Names of the loaded taint configurations; the i-th configuration
+     * is represented by bit i in the bitmasks of taint objects.
+     */
+    private final List<String> configNames = new ArrayList<>();
+
+    private final List<TaintConfig> configs = new ArrayList<>();
 
     private final Solver solver;
 
@@ -58,134 +74,567 @@ public class TaintAnalysiss {
 
     private final Context emptyContext;
 
+    /**
+     * Provenance of taint objects, or null if taint paths are not recorded.
+     */
+    private final TaintProvenance provenance;
+
+    /**
+     * Whether taints are represented as labels propagated separately
+     * from points-to sets, instead of taint objects.
+     */
+    private final boolean labelMode;
+
+    /**
+     * Sink-directed slice in taint-pruning mode, or null in
+     * whole-program mode.
+     */
+    private final SinkDirectedSlice slice;
+
+    /**
+     * Default maximum number of provenance records.
+     */
+    private static final int DEFAULT_PATH_LIMIT = 1_000_000;
+
+    /**
+     * Sink call sites in the reachable methods, resolved from the method
+     * references of the calls, so that sinks of abstract methods and
+     * of calls without call edges (e.g., on receivers with empty points-to
+     * sets, or to summarized methods) are also covered.
+     */
+    private final List<SinkCall> sinkCalls = new ArrayList<>();
+
+    /**
+     * Argument at {@code index} of {@code call} is a sink of
+     * the configuration of index {@code config}.
+     */
+    private record SinkCall(Invoke call, int config, int index) {
+    }
+
+    private static final VarTransfer[] NO_TRANSFERS = new VarTransfer[0];
+
+    /**
+     * Map from variable to the taint transfers whose "from" is the variable.
+     */
+    private final Map<Var, VarTransfer[]> varTransfers = Maps.newMap();
+
+    private static final BaseFieldTransfer[] NO_FIELD_TRANSFERS = new BaseFieldTransfer[0];
+
+    /**
+     * Map from base variable to the transfers between variables and
+     * pseudo-fields of the objects pointed to by the base variable.
+     */
+    private final Map<Var, BaseFieldTransfer[]> baseFieldTransfers = Maps.newMap();
+
+    /**
+     * Transfer between {@code var} and pseudo-field {@code field} of the
+     * objects pointed to by a base variable: "var -> base.field" if
+     * {@code store} is true, otherwise "base.field -> var".
+     */
+    public record BaseFieldTransfer(Var var, JField field, boolean store) {
+    }
+
+    /**
+     * Map from call site to the resolved method of its method ref,
+     * whose field transfers are registered for the call site.
+     */
+    private final Map<Invoke, JMethod> summarizedCalls = Maps.newMap();
+
+    /**
+     * Map from variable to the bitmask of configurations whose taints
+     * are killed at the variable by sanitizers.
+     */
+    private final Map<Var, Integer> killMasks = Maps.newMap();
+
+    /**
+     * Methods whose taint transfers have been precomputed.
+     */
+    private final Set<JMethod> processedMethods = Sets.newSet();
+
+    /**
+     * Taint transfer from a variable to {@code target}: each taint object
+     * flowing into the variable is transferred to {@code target} as
+     * a taint object of {@code type}.
+     */
+    public record VarTransfer(Var target, Type type, int configs) {
+    }
+
+    /**
+     * Key of the taint transfers merged across configurations.
+     */
+    private record TransferKey(Var from, Var target, Type type) {
+    }
+
+    /**
+     * Name of the configuration given as a single path.
+     */
+    private static final String DEFAULT_CONFIG = "default";
+
+    /**
+     * Key of the taint flows per configuration in the analysis result.
+     */
+    public static final String FLOWS_BY_CONFIG =
+            TaintAnalysiss.class.getName() + ".byConfig";
+
     public TaintAnalysiss(Solver solver) {
-        manager = new TaintManager();
         this.solver = solver;
         csManager = solver.getCSManager();
         emptyContext = solver.getContextSelector().getEmptyContext();
-        config = TaintConfig.readConfig(
-                solver.getOptions().getString("taint-config"),
-                World.get().getClassHierarchy(),
-                World.get().getTypeSystem());
-        logger.info(config);
+        AnalysisOptions options = solver.getOptions();
+        parseConfigPaths(options.get("taint-config")).forEach((name, path) -> {
+            TaintConfig config = TaintConfig.readConfig(path,
+                    World.get().getClassHierarchy(),
+                    World.get().getTypeSystem());
+            logger.info("[{}] {}", name, config);
+            configNames.add(name);
+            configs.add(config);
+        });
+        manager = new TaintManager((int) ((1L << configs.size()) - 1));
+        slice = "taint-pruning".equals(options.getString("taint-mode")) ?
+                SinkDirectedSlice.compute(configs) : null;
+        labelMode = "label".equals(options.getString("taint-repr"));
+        if (labelMode && options.getBooleanOrDefault("taint-paths", false)) {
+            logger.warn("taint-paths is not supported with taint-repr: label, ignored");
+        }
+        if (!labelMode && options.getBooleanOrDefault("taint-paths", false)) {
+            int limit = options.get("taint-path-limit") == null ?
+                    DEFAULT_PATH_LIMIT : options.getInt("taint-path-limit");
+            provenance = new TaintProvenance(manager, csManager, limit);
+        } else {
+            provenance = null;
+        }
+    }
+
+    /**
+     * Parses option taint-config, which is either a single path,
+     * a list of "name=path" separated by commas, or a map from
+     * names to paths.
+     *
+     * @return map from configuration names to paths.
+     * @throws ConfigException if an item of the list is not "name=path",
+     *                         or more than 32 configurations are given
+     */
+    private static Map<String, String> parseConfigPaths(Object option) {
+        Map<String, String> paths = new LinkedHashMap<>();
+        if (option instanceof Map<?, ?> map) {
+            map.forEach((name, path) -> paths.put(name.toString(), path.toString()));
+        } else if (!option.toString().contains("=")) {
+            paths.put(DEFAULT_CONFIG, option.toString());
+        } else {
+            for (String item : option.toString().split(",")) {
+                int i = item.indexOf('=');
+                if (i < 0) {
+                    throw new ConfigException("Illegal taint config \"" + item
+                            + "\", expected \"name=path\"");
+                }
+                paths.put(item.substring(0, i).trim(), item.substring(i + 1).trim());
+            }
+        }
+        if (paths.size() > Integer.SIZE) {
+            throw new ConfigException("Too many taint configs: " + paths.size()
+                    + ", at most " + Integer.SIZE + " are supported");
+        }
+        return paths;
+    }
+
+    /**
+     * @return the provenance recorder of taint objects, or null if
+     * taint paths are not recorded.
+     */
+    public TaintProvenance getProvenance() {
+        return provenance;
     }
 
     // TODO - finish me
 
     public void onFinish() {
-        Set<TaintFlow> taintFlows = collectTaintFlows();
+        Map<String, Set<TaintFlow>> flowsByConfig = new LinkedHashMap<>();
+        configNames.forEach(name -> flowsByConfig.put(name, new TreeSet<>()));
+        Set<TaintFlow> taintFlows = collectTaintFlows(flowsByConfig);
         solver.getResult().storeResult(getClass().getName(), taintFlows);
+        solver.getResult().storeResult(FLOWS_BY_CONFIG, flowsByConfig);
+        if (provenance != null) {
+            solver.getResult().storeResult(
+                    TaintProvenance.class.getName(), provenance);
+        }
+    }
+    /**
+     * @return true if taints are represented as labels instead of
+     * taint objects.
+     */
+    public boolean isLabelMode() {
+        return labelMode;
     }
+
     public Obj getTaintObj(Stmt stmt){
-        if(stmt instanceof Invoke){
-            for(Source s:config.getSources()){
-                if(s.method().equals(((Invoke) stmt).getInvokeExp().getMethodRef().resolve())&&
-                s.type().equals(((Invoke) stmt).getRValue().getType())){
-                    Obj taintobj = manager.makeTaint((Invoke) stmt,s.type());
-                    return taintobj;
-                }
+        if(stmt instanceof Invoke invoke){
+            int mask = getSourceConfigs(invoke);
+            if (mask != 0) {
+                return manager.makeTaint(invoke,invoke.getRValue().getType(),mask);
             }
         }
 
         return null;
 
     }
-    public TaintTransfer findtainttransfer(Invoke invoke,int from,int to,CSObj recvobj){
-        for(TaintTransfer t:config.getTransfers()){
-            JMethod m;
-//            if(invoke.isStatic()){
-//                m = invoke.getMethodRef().resolve();
-//            }
-//            else{
-//                m = solver.resolveCallee(recvobj,invoke);
-//            }
-            m = invoke.getMethodRef().resolve();
-            if(t.method().equals(m)&&t.to()==to&&t.from()==from){
-                return t;
+
+    /**
+     * @return the taint label created at given statement, or -1 if
+     * the statement is not a source call.
+     */
+    public int getTaintLabel(Stmt stmt) {
+        if (stmt instanceof Invoke invoke) {
+            int mask = getSourceConfigs(invoke);
+            if (mask != 0) {
+                return manager.makeLabel(invoke, invoke.getRValue().getType(), mask);
             }
         }
-        return  null;
+        return -1;
     }
-    public  Map<Pointer,PointsToSet> taintpropagate(CSVar csv, CSObj co, JMethod m){
-        Map map = new HashMap<>();
-        if(!manager.isTaint(co.getObject())){
-            return map;
-        }
-        Obj o = co.getObject();
-        Context c = co.getContext();
-        //base to result
-        for(Invoke invoke:csv.getVar().getInvokes()){//-1 表示 base 变量；-2 表示接收结果的变量。
-            TaintTransfer t = findtainttransfer(invoke,-1,-2,co);
-
-            if(t!=null){
-                InvokeExp ie = invoke.getInvokeExp();
-                if(ie instanceof InvokeInstanceExp){
-                    if(((InvokeInstanceExp) ie).getBase().equals(csv.getVar())){
-                        CSObj taintobj = csManager.getCSObj(c,manager.makeTaint(manager.getSourceCall(o),t.type()));
-                        if(invoke.getLValue()!=null){
-                            CSVar left = csManager.getCSVar(csv.getContext(),invoke.getLValue());
-                            map.put(left, PointsToSetFactory.make(taintobj));
-                        }
-                    }
 
+    /**
+     * @return the bitmask of the configurations in which given invocation
+     * is a source call, or 0 if it is not a source call.
+     */
+    private int getSourceConfigs(Invoke invoke) {
+        if (invoke.getLValue() == null ||
+                (slice != null && !slice.isRelevantSource(invoke))) {
+            return 0;
+        }
+        JMethod m = invoke.getMethodRef().resolve();
+        Type type = invoke.getRValue().getType();
+        int mask = 0;
+        for (int i = 0; i < configs.size(); ++i) {
+            for(Source s:configs.get(i).getSourcesOf(m)){
+                if(s.type().equals(type)){
+                    mask |= 1 << i;
                 }
             }
         }
-        //args to base/result
-        m.getIR().forEach(stmt -> {
-            if(stmt instanceof Invoke){
-                Invoke invoke = (Invoke) stmt;
-                int argnum = invoke.getInvokeExp().getArgCount();
-                for (int i=0;i<argnum;i++){
-                    TaintTransfer atob = findtainttransfer(invoke,i,-1,co);
-                    TaintTransfer ator = findtainttransfer(invoke,i,-2,co);
-                    InvokeExp ie = invoke.getInvokeExp();
-                    if(atob!=null&&ie.getArgs().get(i).equals(csv.getVar())){
-                        CSObj taintobj = csManager.getCSObj(c,manager.makeTaint(manager.getSourceCall(o),atob.type()));
-
-                        if(ie instanceof InvokeInstanceExp){
-                            CSVar base = csManager.getCSVar(csv.getContext(),((InvokeInstanceExp) ie).getBase());
-                            map.put(base,PointsToSetFactory.make(taintobj));
-                        }
-                    }
-                    if(ator!=null&&ie.getArgs().get(i).equals(csv.getVar())){
-                        CSObj taintobj = csManager.getCSObj(c,manager.makeTaint(manager.getSourceCall(o),ator.type()));
-                        if(invoke.getLValue()!=null){
-                            CSVar left = csManager.getCSVar(csv.getContext(),invoke.getLValue());
-                            map.put(left, PointsToSetFactory.make(taintobj));
-                        }
+        return mask;
+    }
+    /**
+     * Precomputes the taint transfers triggered by the invocations in
+     * given method, so that the solver can apply them to the argument
+     * and base variables directly when their points-to sets change,
+     * and records the sink calls in given method.
+     * Each method is processed only once regardless of its contexts.
+     */
+    public void onNewMethod(JMethod method) {
+        if (!processedMethods.add(method)) {
+            return;
+        }
+        addSanitizedParams(method);
+        Map<TransferKey, Integer> transfers = Maps.newMap();
+        method.getIR().forEach(stmt -> {
+            if (stmt instanceof Invoke invoke) {
+                JMethod callee = invoke.getMethodRef().resolve();
+                addSinkCalls(invoke, callee);
+                if (invoke.getLValue() != null) {
+                    int kill = getSanitizedConfigs(callee, TaintTransfer.RESULT);
+                    if (kill != 0) {
+                        killMasks.merge(invoke.getLValue(), kill, (m1, m2) -> m1 | m2);
                     }
                 }
+                InvokeExp ie = invoke.getInvokeExp();
+                Var base = ie instanceof InvokeInstanceExp iie ?
+                        iie.getBase() : null;
+                if (base != null) {
+                    addVarTransfers(transfers, invoke, callee, TaintTransfer.BASE, base);
+                    addBaseFieldTransfers(invoke, callee, base);
+                }
+                for (int i = 0; i < ie.getArgCount(); ++i) {
+                    addVarTransfers(transfers, invoke, callee, i, ie.getArg(i));
+                }
             }
         });
-        return map;
+        MultiMap<Var, VarTransfer> merged = Maps.newMultiMap();
+        transfers.forEach((key, mask) -> merged.put(key.from(),
+                new VarTransfer(key.target(), key.type(), mask)));
+        merged.forEachSet((var, ts) ->
+                varTransfers.put(var, ts.toArray(new VarTransfer[0])));
     }
-    private Set<TaintFlow> collectTaintFlows() {
-        Set<TaintFlow> taintFlows = new TreeSet<>();
-        PointerAnalysisResult result = solver.getResult();
-        // TODO - finish me
-        // You could query pointer analysis results you need via variable result.
-        //handle sink
-        result.getCallGraph().forEach(method->{
-            method.getIR().getStmts().forEach(stmt -> {
-                if(stmt instanceof Invoke){
-                    config.getSinks().forEach(sink -> {
-                        if (((Invoke) stmt).getInvokeExp().getMethodRef().resolve().equals(sink.method())){
-                            InvokeExp ie = ((Invoke) stmt).getInvokeExp();
-                            int i = sink.index();
-                            Var taintvar = ie.getArgs().get(i);
-                            Set<Obj> taintobj = result.getPointsToSet(taintvar);
-                            for(Obj o : taintobj){
-                                if(manager.isTaint(o)){
-                                    taintFlows.add(new TaintFlow(manager.getSourceCall(o), (Invoke) stmt,i));
-                                }
-                            }
-                        }
+
+    private void addSinkCalls(Invoke invoke, JMethod callee) {
+        for (int i = 0; i < configs.size(); ++i) {
+            for (Sink sink : configs.get(i).getSinksOf(callee)) {
+                if (slice == null || slice.isRelevantSink(invoke, sink.index())) {
+                    sinkCalls.add(new SinkCall(invoke, i, sink.index()));
+                }
+            }
+        }
+    }
+
+    private void addBaseFieldTransfers(Invoke invoke, JMethod callee, Var base) {
+        List<BaseFieldTransfer> transfers = new ArrayList<>();
+        for (TaintConfig config : configs) {
+            for (FieldTransfer t : config.getFieldTransfersOf(callee)) {
+                Var var = switch (t.index()) {
+                    case TaintTransfer.BASE -> base;
+                    case TaintTransfer.RESULT -> invoke.getLValue();
+                    default -> t.index() < invoke.getInvokeExp().getArgCount() ?
+                            invoke.getInvokeExp().getArg(t.index()) : null;
+                };
+                if (var != null) {
+                    transfers.add(new BaseFieldTransfer(
+                            var, PseudoFields.get(t.field()), t.store()));
+                }
+            }
+        }
+        if (!transfers.isEmpty()) {
+            summarizedCalls.put(invoke, callee);
+            baseFieldTransfers.merge(base, transfers.toArray(new BaseFieldTransfer[0]),
+                    (t1, t2) -> {
+                        BaseFieldTransfer[] t = Arrays.copyOf(t1, t1.length + t2.length);
+                        System.arraycopy(t2, 0, t, t1.length, t2.length);
+                        return t;
                     });
+        }
+    }
+
+    /**
+     * @return transfers between variables and pseudo-fields of the objects
+     * pointed to by given base variable, or an empty array if there is none.
+     */
+    public BaseFieldTransfer[] getBaseFieldTransfers(Var base) {
+        return baseFieldTransfers.getOrDefault(base, NO_FIELD_TRANSFERS);
+    }
+
+    /**
+     * The field transfers of a call site are registered for the resolved
+     * method of its method ref. They cover a dispatched callee only if it
+     * is the resolved method, or a library method (e.g., an implementation
+     * of a summarized interface method), but not an application method
+     * which overrides the resolved method.
+     *
+     * @return true if the call from given call site to given dispatched
+     * callee is modeled by field transfers, in which case the callee
+     * is not analyzed.
+     */
+    public boolean isSummarized(Invoke invoke, JMethod callee) {
+        JMethod summarized = summarizedCalls.get(invoke);
+        return summarized != null && (callee.equals(summarized) ||
+                !callee.getDeclaringClass().isApplication());
+    }
+
+    /**
+     * Kills taints at "this" and parameters of given method if it is
+     * a sanitizer of them, so that taint objects never enter its body.
+     */
+    private void addSanitizedParams(JMethod method) {
+        IR ir = method.getIR();
+        for (int i = 0; i < configs.size(); ++i) {
+            for (Sanitizer sanitizer : configs.get(i).getSanitizersOf(method)) {
+                Var var = switch (sanitizer.index()) {
+                    case TaintTransfer.BASE -> ir.getThis();
+                    case TaintTransfer.RESULT -> null; // handled at call sites
+                    default -> sanitizer.index() < ir.getParams().size() ?
+                            ir.getParam(sanitizer.index()) : null;
+                };
+                if (var != null) {
+                    killMasks.merge(var, 1 << i, (m1, m2) -> m1 | m2);
                 }
+            }
+        }
+    }
 
-            });
+    /**
+     * @return the bitmask of configurations in which given index of
+     * given method is sanitized.
+     */
+    private int getSanitizedConfigs(JMethod method, int index) {
+        int mask = 0;
+        for (int i = 0; i < configs.size(); ++i) {
+            for (Sanitizer sanitizer : configs.get(i).getSanitizersOf(method)) {
+                if (sanitizer.index() == index) {
+                    mask |= 1 << i;
+                }
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * @return the bitmask of configurations whose taints are killed at
+     * given variable, or 0 if none.
+     */
+    public int getKillMask(Var var) {
+        return killMasks.getOrDefault(var, 0);
+    }
+
+    /**
+     * @return the taint object that remains after killing the configurations
+     * in {@code kill} from given taint object, or null if nothing remains.
+     */
+    public CSObj sanitize(CSObj taint, int kill) {
+        Obj obj = taint.getObject();
+        int mask = manager.getConfigs(obj);
+        if ((mask & kill) == 0) {
+            return taint;
+        }
+        mask &= ~kill;
+        if (mask == 0) {
+            return null;
+        }
+        Obj newTaint = manager.makeTaint(
+                manager.getSourceCall(obj), obj.getType(), mask);
+        return csManager.getCSObj(taint.getContext(), newTaint);
+    }
+
+    /**
+     * @return the taint label that remains after killing the configurations
+     * in {@code kill} from given taint label, or -1 if nothing remains.
+     */
+    public int sanitizeLabel(int label, int kill) {
+        int mask = manager.getLabelConfigs(label);
+        if ((mask & kill) == 0) {
+            return label;
+        }
+        mask &= ~kill;
+        return mask == 0 ? -1 : manager.makeLabel(
+                manager.getLabelSourceCall(label), manager.getLabelType(label), mask);
+    }
+
+    private void addVarTransfers(Map<TransferKey, Integer> transfers,
+                                 Invoke invoke, JMethod callee, int from, Var fromVar) {
+        if (slice != null && !slice.isRelevant(fromVar)) {
+            return;
+        }
+        int sanitized = getSanitizedConfigs(callee, from);
+        for (int i = 0; i < configs.size(); ++i) {
+            if ((sanitized & (1 << i)) != 0) {
+                continue; // taint can not flow through sanitized variable
+            }
+            for (TaintTransfer t : configs.get(i).getTransfersOf(callee, from)) {
+                Var target = switch (t.to()) {
+                    case TaintTransfer.BASE ->
+                            invoke.getInvokeExp() instanceof InvokeInstanceExp iie ?
+                                    iie.getBase() : null;
+                    case TaintTransfer.RESULT -> invoke.getLValue();
+                    default -> null; // transfers to arguments are not supported
+                };
+                if (target != null) {
+                    transfers.merge(new TransferKey(fromVar, target, t.type()),
+                            1 << i, (m1, m2) -> m1 | m2);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the taint transfers whose "from" variable is given variable,
+     * or an empty array if there is none.
+     */
+    public VarTransfer[] getVarTransfers(Var var) {
+        return varTransfers.getOrDefault(var, NO_TRANSFERS);
+    }
+
+    /**
+     * @return true if given object is a taint object.
+     */
+    public boolean isTaint(CSObj csObj) {
+        return manager.isTaint(csObj.getObject());
+    }
+
+    /**
+     * @return the taint object that shares the source call (and heap
+     * context) of given taint object, with the type of given transfer and
+     * the configurations of both, or null if they share no configuration.
+     */
+    public CSObj transferTaint(CSObj taint, VarTransfer transfer) {
+        Obj obj = taint.getObject();
+        int mask = manager.getConfigs(obj) & transfer.configs();
+        if (mask == 0) {
+            return null;
+        }
+        Obj newTaint = manager.makeTaint(
+                manager.getSourceCall(obj), transfer.type(), mask);
+        return csManager.getCSObj(taint.getContext(), newTaint);
+    }
+
+    /**
+     * @return the taint label with the source call of given label,
+     * the type of given transfer and the configurations of both,
+     * or -1 if they share no configuration.
+     */
+    public int transferLabel(int label, VarTransfer transfer) {
+        int mask = manager.getLabelConfigs(label) & transfer.configs();
+        if (mask == 0) {
+            return -1;
+        }
+        return manager.makeLabel(manager.getLabelSourceCall(label),
+                transfer.type(), mask);
+    }
+
+    /**
+     * Collects taint flows of all configurations, and adds the flows of
+     * each configuration to its set in {@code flowsByConfig}.
+     * The sink calls are processed in parallel, and the flows are
+     * ordered by the sorted sets.
+     */
+    private Set<TaintFlow> collectTaintFlows(Map<String, Set<TaintFlow>> flowsByConfig) {
+        List<ConfigFlow> flows = sinkCalls.parallelStream()
+                .flatMap(sinkCall -> collectFlowsAt(sinkCall).stream())
+                .toList();
+        Set<TaintFlow> taintFlows = new TreeSet<>();
+        flows.forEach(flow -> {
+            taintFlows.add(flow.flow());
+            flowsByConfig.get(configNames.get(flow.config())).add(flow.flow());
         });
         return taintFlows;
     }
+
+    /**
+     * Taint flow found for the configuration of given index.
+     */
+    private record ConfigFlow(int config, TaintFlow flow) {
+    }
+
+    /**
+     * Collects the taint flows at given sink call. This method only reads
+     * the (finished) analysis states, and thus can be invoked in parallel.
+     */
+    private List<ConfigFlow> collectFlowsAt(SinkCall sinkCall) {
+        Invoke call = sinkCall.call();
+        int config = sinkCall.config();
+        int i = sinkCall.index();
+        Var arg = call.getInvokeExp().getArg(i);
+        List<ConfigFlow> flows = new ArrayList<>();
+        if (labelMode) {
+            getTaintLabelsOf(arg).stream().forEach(label -> {
+                if ((manager.getLabelConfigs(label) & (1 << config)) != 0) {
+                    flows.add(new ConfigFlow(config, new TaintFlow(
+                            manager.getLabelSourceCall(label), call, i)));
+                }
+            });
+        } else {
+            Set<Invoke> sourceCalls = Sets.newSet();
+            for (CSVar csVar : csManager.getCSVarsOf(arg)) {
+                for (CSObj csObj : csVar.getPointsToSet()) {
+                    Obj o = csObj.getObject();
+                    if (manager.isTaint(o) &&
+                            (manager.getConfigs(o) & (1 << config)) != 0 &&
+                            sourceCalls.add(manager.getSourceCall(o))) {
+                        flows.add(new ConfigFlow(config, new TaintFlow(
+                                manager.getSourceCall(o), call, i)));
+                    }
+                }
+            }
+        }
+        return flows;
+    }
+
+    /**
+     * @return the union of taint labels of given variable in all contexts.
+     */
+    private BitSet getTaintLabelsOf(Var var) {
+        BitSet labels = new BitSet();
+        csManager.getCSVarsOf(var).forEach(csVar -> {
+            BitSet l = solver.getTaintLabels(csVar);
+            if (l != null) {
+                labels.or(l);
+            }
+        });
+        return labels;
+    }
 }
@@ -38,7 +38,10 @@ import pascal.taie.language.classes.ClassHierarchy;
 import pascal.taie.language.classes.JMethod;
 import pascal.taie.language.type.Type;
 import pascal.taie.language.type.TypeSystem;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.MultiMap;
 import pascal.taie.util.collection.Sets;
+import pascal.taie.util.collection.TwoKeyMap;
 
 import java.io.File;
 import java.io.IOException;
@@ -67,11 +70,59 @@ class TaintConfig {
      */
     private final Set<TaintTransfer> transfers;
 
+    /**
+     * Set of sanitizers.
+     */
+    private final Set<Sanitizer> sanitizers;
+
+    /**
+     * Set of transfers between variables and pseudo-fields.
+     */
+    private final Set<FieldTransfer> fieldTransfers;
+
+    /**
+     * Map from method to its transfers between variables and pseudo-fields.
+     */
+    private final MultiMap<JMethod, FieldTransfer> method2FieldTransfers = Maps.newMultiMap();
+
+    /**
+     * Map from source method to the sources of the method.
+     */
+    private final MultiMap<JMethod, Source> method2Sources = Maps.newMultiMap();
+
+    /**
+     * Map from sink method to the sinks of the method.
+     */
+    private final MultiMap<JMethod, Sink> method2Sinks = Maps.newMultiMap();
+
+    /**
+     * Map from (transfer method, from index) to the taint transfers.
+     */
+    private final TwoKeyMap<JMethod, Integer, Set<TaintTransfer>> method2Transfers
+            = Maps.newTwoKeyMap();
+
+    /**
+     * Map from sanitizer method to the sanitizers of the method.
+     */
+    private final MultiMap<JMethod, Sanitizer> method2Sanitizers = Maps.newMultiMap();
+
     private TaintConfig(Set<Source> sources, Set<Sink> sinks,
-                        Set<TaintTransfer> transfers) {
+                        Set<TaintTransfer> transfers, Set<Sanitizer> sanitizers,
+                        Set<FieldTransfer> fieldTransfers) {
         this.sources = sources;
         this.sinks = sinks;
         this.transfers = transfers;
+        this.sanitizers = sanitizers;
+        this.fieldTransfers = fieldTransfers;
+        fieldTransfers.forEach(transfer ->
+                method2FieldTransfers.put(transfer.method(), transfer));
+        sanitizers.forEach(sanitizer ->
+                method2Sanitizers.put(sanitizer.method(), sanitizer));
+        sources.forEach(source -> method2Sources.put(source.method(), source));
+        sinks.forEach(sink -> method2Sinks.put(sink.method(), sink));
+        transfers.forEach(transfer -> method2Transfers.computeIfAbsent(
+                transfer.method(), transfer.from(), (m, f) -> Sets.newSet())
+                .add(transfer));
     }
 
     /**
@@ -119,6 +170,48 @@ class TaintConfig {
         return transfers;
     }
 
+    /**
+     * @return sanitizers in the configuration.
+     */
+    Set<Sanitizer> getSanitizers() {
+        return sanitizers;
+    }
+
+    /**
+     * @return transfers between variables and pseudo-fields of given method.
+     */
+    Set<FieldTransfer> getFieldTransfersOf(JMethod method) {
+        return method2FieldTransfers.get(method);
+    }
+
+    /**
+     * @return sanitizers whose sanitizer method is given method.
+     */
+    Set<Sanitizer> getSanitizersOf(JMethod method) {
+        return method2Sanitizers.get(method);
+    }
+
+    /**
+     * @return sources whose source method is given method.
+     */
+    Set<Source> getSourcesOf(JMethod method) {
+        return method2Sources.get(method);
+    }
+
+    /**
+     * @return sinks whose sink method is given method.
+     */
+    Set<Sink> getSinksOf(JMethod method) {
+        return method2Sinks.get(method);
+    }
+
+    /**
+     * @return taint transfers of given method whose "from" index is given index.
+     */
+    Set<TaintTransfer> getTransfersOf(JMethod method, int from) {
+        return method2Transfers.getOrDefault(method, from, Set.of());
+    }
+
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder("TaintConfig:");
@@ -137,6 +230,16 @@ class TaintConfig {
             transfers.forEach(transfer ->
                     sb.append("  ").append(transfer).append("\n"));
         }
+        if (!fieldTransfers.isEmpty()) {
+            sb.append("\nfield transfers:\n");
+            fieldTransfers.forEach(transfer ->
+                    sb.append("  ").append(transfer).append("\n"));
+        }
+        if (!sanitizers.isEmpty()) {
+            sb.append("\nsanitizers:\n");
+            sanitizers.forEach(sanitizer ->
+                    sb.append("  ").append(sanitizer).append("\n"));
+        }
         return sb.toString();
     }
 
@@ -162,7 +265,10 @@ class TaintConfig {
             Set<Source> sources = deserializeSources(node.get("sources"));
             Set<Sink> sinks = deserializeSinks(node.get("sinks"));
             Set<TaintTransfer> transfers = deserializeTransfers(node.get("transfers"));
-            return new TaintConfig(sources, sinks, transfers);
+            Set<Sanitizer> sanitizers = deserializeSanitizers(node.get("sanitizers"));
+            Set<FieldTransfer> fieldTransfers =
+                    deserializeFieldTransfers(node.get("transfers"));
+            return new TaintConfig(sources, sinks, transfers, sanitizers, fieldTransfers);
         }
 
         /**
@@ -237,6 +343,10 @@ class TaintConfig {
                 for (JsonNode elem : arrayNode) {
                     String methodSig = elem.get("method").asText();
                     JMethod method = hierarchy.getMethod(methodSig);
+                    if (FieldTransfer.isFieldPath(elem.get("from").asText()) ||
+                            FieldTransfer.isFieldPath(elem.get("to").asText())) {
+                        continue; // handled by deserializeFieldTransfers()
+                    }
                     if (method != null) {
                         // if the method (given in config file) is absent in
                         // the class hierarchy, just ignore it.
@@ -255,5 +365,76 @@ class TaintConfig {
                 return Set.of();
             }
         }
+
+        /**
+         * Deserializes the transfers involving pseudo-fields of base variable,
+         * e.g., "from: 0, to: base.element", in a {@link JsonNode}
+         * (assume it is an {@link ArrayNode}) to a set of {@link FieldTransfer}.
+         *
+         * @param node the node to be deserialized
+         * @return set of deserialized {@link FieldTransfer}
+         */
+        private Set<FieldTransfer> deserializeFieldTransfers(JsonNode node) {
+            if (node instanceof ArrayNode arrayNode) {
+                Set<FieldTransfer> transfers = Sets.newSet();
+                for (JsonNode elem : arrayNode) {
+                    String from = elem.get("from").asText();
+                    String to = elem.get("to").asText();
+                    boolean store = FieldTransfer.isFieldPath(to);
+                    if (!store && !FieldTransfer.isFieldPath(from)) {
+                        continue; // ordinary taint transfer
+                    }
+                    if (store && FieldTransfer.isFieldPath(from)) {
+                        throw new ConfigException("Transfer between two fields is" +
+                                " not supported: " + from + " -> " + to);
+                    }
+                    String methodSig = elem.get("method").asText();
+                    JMethod method = hierarchy.getMethod(methodSig);
+                    if (method != null) {
+                        // if the method (given in config file) is absent in
+                        // the class hierarchy, just ignore it.
+                        String path = store ? to : from;
+                        String field = path.substring(FieldTransfer.BASE_PREFIX.length());
+                        int index = TaintTransfer.toInt(store ? from : to);
+                        transfers.add(new FieldTransfer(method, index, field, store));
+                    } else {
+                        logger.warn("Cannot find taint-transfer method '{}'", methodSig);
+                    }
+                }
+                return Collections.unmodifiableSet(transfers);
+            } else {
+                // if node is not an instance of ArrayNode, just return an empty set.
+                return Set.of();
+            }
+        }
+
+        /**
+         * Deserializes a {@link JsonNode} (assume it is an {@link ArrayNode})
+         * to a set of {@link Sanitizer}.
+         *
+         * @param node the node to be deserialized
+         * @return set of deserialized {@link Sanitizer}
+         */
+        private Set<Sanitizer> deserializeSanitizers(JsonNode node) {
+            if (node instanceof ArrayNode arrayNode) {
+                Set<Sanitizer> sanitizers = Sets.newSet(arrayNode.size());
+                for (JsonNode elem : arrayNode) {
+                    String methodSig = elem.get("method").asText();
+                    JMethod method = hierarchy.getMethod(methodSig);
+                    if (method != null) {
+                        // if the method (given in config file) is absent in
+                        // the class hierarchy, just ignore it.
+                        int index = TaintTransfer.toInt(elem.get("index").asText());
+                        sanitizers.add(new Sanitizer(method, index));
+                    } else {
+                        logger.warn("Cannot find sanitizer method '{}'", methodSig);
+                    }
+                }
+                return Collections.unmodifiableSet(sanitizers);
+            } else {
+                // if node is not an instance of ArrayNode, just return an empty set.
+                return Set.of();
+            }
+        }
     }
 }
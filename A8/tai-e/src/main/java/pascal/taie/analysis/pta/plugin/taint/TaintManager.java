@@ -28,7 +28,10 @@ import pascal.taie.ir.stmt.Invoke;
 import pascal.taie.language.type.Type;
 import pascal.taie.util.AnalysisException;
 import pascal.taie.util.collection.Maps;
-import pascal.taie.util.collection.TwoKeyMap;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 
 /**
  * Manages taint objects.
@@ -37,18 +40,50 @@ class TaintManager {
 
     private static final String TAINT_DESC = "TaintObj";
 
-    private final TwoKeyMap<Invoke, Type, Obj> taints = Maps.newTwoKeyMap();
+    /**
+     * Bitmask of all loaded taint configurations.
+     */
+    private final int allConfigs;
+
+    private final Map<TaintKey, Obj> taints = Maps.newMap();
+
+    /**
+     * Map from taint object to the bitmask of configurations it belongs to.
+     */
+    private final Map<Obj, Integer> configs = Maps.newMap();
+
+    /**
+     * Taint labels, indexed by label ids.
+     */
+    private final List<TaintKey> labels = new ArrayList<>();
+
+    private final Map<TaintKey, Integer> labelIds = Maps.newMap();
 
     /**
-     * Makes a taint object for given source and type.
+     * @param allConfigs bitmask of all loaded taint configurations
+     */
+    TaintManager(int allConfigs) {
+        this.allConfigs = allConfigs;
+    }
+
+    /**
+     * Makes a taint object for given source, type and configurations.
+     * Taint objects belonging to all configurations keep the plain
+     * description, so that single-configuration results are unchanged.
      *
-     * @param source invocation to the source method, i.e., source call
-     * @param type   type of the taint object
-     * @return the taint object for given source and type.
+     * @param source  invocation to the source method, i.e., source call
+     * @param type    type of the taint object
+     * @param configs bitmask of the configurations the taint object belongs to
+     * @return the taint object for given source, type and configurations.
      */
-    Obj makeTaint(Invoke source, Type type) {
-        return taints.computeIfAbsent(source, type,
-                (s, t) -> new MockObj(TAINT_DESC, s, t));
+    Obj makeTaint(Invoke source, Type type, int configs) {
+        return taints.computeIfAbsent(new TaintKey(source, type, configs), k -> {
+            String desc = configs == allConfigs ? TAINT_DESC :
+                    TAINT_DESC + "@" + Integer.toHexString(configs);
+            Obj taint = new MockObj(desc, source, type);
+            this.configs.put(taint, configs);
+            return taint;
+        });
     }
 
     /**
@@ -56,7 +91,53 @@ class TaintManager {
      */
     boolean isTaint(Obj obj) {
         return obj instanceof MockObj &&
-                ((MockObj) obj).getDescription().equals(TAINT_DESC);
+                ((MockObj) obj).getDescription().startsWith(TAINT_DESC);
+    }
+
+    /**
+     * Makes a taint label, i.e., a compact id of a taint represented
+     * without taint object, for given source, type and configurations.
+     *
+     * @return the id of the label, which is a non-negative integer.
+     */
+    int makeLabel(Invoke source, Type type, int configs) {
+        return labelIds.computeIfAbsent(new TaintKey(source, type, configs), k -> {
+            labels.add(k);
+            return labels.size() - 1;
+        });
+    }
+
+    /**
+     * @return the source call of given taint label.
+     */
+    Invoke getLabelSourceCall(int label) {
+        return labels.get(label).source();
+    }
+
+    /**
+     * @return the type of given taint label.
+     */
+    Type getLabelType(int label) {
+        return labels.get(label).type();
+    }
+
+    /**
+     * @return the bitmask of configurations given taint label belongs to.
+     */
+    int getLabelConfigs(int label) {
+        return labels.get(label).configs();
+    }
+
+    /**
+     * @return the bitmask of configurations given taint object belongs to.
+     * @throws AnalysisException if given object is not a taint object.
+     */
+    int getConfigs(Obj obj) {
+        Integer mask = configs.get(obj);
+        if (mask != null) {
+            return mask;
+        }
+        throw new AnalysisException(obj + " is not a taint object");
     }
 
     /**
@@ -69,4 +150,7 @@ class TaintManager {
         }
         throw new AnalysisException(obj + " is not a taint object");
     }
+
+    private record TaintKey(Invoke source, Type type, int configs) {
+    }
 }
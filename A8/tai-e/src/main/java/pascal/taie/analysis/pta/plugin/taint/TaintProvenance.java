@@ -0,0 +1,264 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.pta.plugin.taint;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.analysis.pta.core.cs.element.CSManager;
+import pascal.taie.analysis.pta.core.cs.element.CSObj;
+import pascal.taie.analysis.pta.core.cs.element.CSVar;
+import pascal.taie.analysis.pta.core.cs.element.Pointer;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.TwoKeyMap;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Records lightweight provenance of taint objects during pointer analysis,
+ * and reconstructs source-to-sink paths of taint flows on demand.
+ * <p>
+ * Only the taint objects that reach pointers via non-PFG edges (i.e.,
+ * sources, transfers, receivers and sanitizers) are recorded. For each
+ * (pointer, taint object) pair, only the first arrival is recorded, i.e.,
+ * the predecessor pointer (and taint object) and the kind of the edge.
+ * Flows along PFG edges are not recorded, but found from the PFG when
+ * reconstructing paths. Non-taint objects are never recorded, and the
+ * number of records is bounded by a given limit.
+ */
+public class TaintProvenance {
+
+    private static final Logger logger = LogManager.getLogger(TaintProvenance.class);
+
+    /**
+     * Kinds of the edges along which taint objects flow.
+     */
+    public enum Kind {
+        /**
+         * The taint object is created at a source call.
+         */
+        SOURCE,
+        /**
+         * The taint object flows along a PFG edge. Such flows are not
+         * recorded, but found from the PFG when reconstructing paths.
+         */
+        FLOW,
+        /**
+         * The taint object is produced by a taint transfer.
+         */
+        TRANSFER,
+        /**
+         * The taint object flows from a receiver variable to
+         * "this" variable of the callee.
+         */
+        RECEIVER,
+        /**
+         * The taint object is narrowed by a sanitizer from a taint object
+         * of more configurations, which reaches the same pointer.
+         */
+        SANITIZE,
+    }
+
+    /**
+     * A step of a taint path: {@code taint} reaches {@code pointer}
+     * via an edge of {@code kind}.
+     */
+    public record Step(Pointer pointer, CSObj taint, Kind kind) {
+
+        @Override
+        public String toString() {
+            return kind + ": " + pointer + " <- " + taint;
+        }
+    }
+
+    /**
+     * Node of the search space for path reconstruction.
+     */
+    private record Node(Pointer pointer, CSObj taint) {
+    }
+
+    /**
+     * Origin of a (pointer, taint object) pair.
+     */
+    private record Origin(Pointer pred, CSObj predTaint, Kind kind) {
+    }
+
+    private final TaintManager manager;
+
+    private final CSManager csManager;
+
+    /**
+     * Maximum number of recorded origins.
+     */
+    private final int limit;
+
+    private final TwoKeyMap<Pointer, CSObj, Origin> origins = Maps.newTwoKeyMap();
+
+    private int size;
+
+    /**
+     * Function that returns the PFG predecessors of a pointer.
+     */
+    private Function<Pointer, Set<Pointer>> predecessors;
+
+    TaintProvenance(TaintManager manager, CSManager csManager, int limit) {
+        this.manager = manager;
+        this.csManager = csManager;
+        this.limit = limit;
+    }
+
+    /**
+     * Sets the function that computes PFG predecessors, which is used
+     * to find shortest paths when reconstructing taint paths.
+     */
+    public void setPredecessors(Function<Pointer, Set<Pointer>> predecessors) {
+        this.predecessors = predecessors;
+    }
+
+    /**
+     * Records that {@code taint} is created at the source call
+     * whose result is {@code pointer}.
+     */
+    public void recordSource(Pointer pointer, CSObj taint) {
+        record(pointer, taint, null, null, Kind.SOURCE);
+    }
+
+    /**
+     * Records that {@code taint} is transferred from {@code predTaint}
+     * pointed to by {@code pred}.
+     */
+    public void recordTransfer(Pointer pred, CSObj predTaint,
+                               Pointer pointer, CSObj taint) {
+        record(pointer, taint, pred, predTaint, Kind.TRANSFER);
+    }
+
+    /**
+     * Records that {@code taint}, which arrives at {@code pointer},
+     * is narrowed to {@code sanitized} by a sanitizer.
+     */
+    public void recordSanitize(Pointer pointer, CSObj taint, CSObj sanitized) {
+        record(pointer, sanitized, pointer, taint, Kind.SANITIZE);
+    }
+
+    /**
+     * Records that {@code taint} flows from receiver variable {@code recv}
+     * to "this" variable of a callee.
+     */
+    public void recordReceiver(Pointer recv, Pointer thisVar, CSObj taint) {
+        if (manager.isTaint(taint.getObject())) {
+            record(thisVar, taint, recv, taint, Kind.RECEIVER);
+        }
+    }
+
+    private void record(Pointer pointer, CSObj taint,
+                        Pointer pred, CSObj predTaint, Kind kind) {
+        if (size >= limit || origins.containsKey(pointer, taint)) {
+            return;
+        }
+        origins.put(pointer, taint, new Origin(pred, predTaint, kind));
+        if (++size == limit) {
+            logger.warn("Taint provenance reaches the limit ({}), " +
+                    "later taint flows are not recorded", limit);
+        }
+    }
+
+    /**
+     * Reconstructs the shortest path (from source to sink) of given taint flow.
+     * Taint objects move backward along recorded non-PFG edges and
+     * PFG edges (given by {@link #setPredecessors}), and the search
+     * stops at the first source reached.
+     * This method should be called after the pointer analysis finishes.
+     *
+     * @return the steps of the path, or an empty list if the path
+     * is unavailable (e.g., the provenance limit has been reached).
+     */
+    public List<Step> getPath(TaintFlow flow) {
+        Var sinkArg = flow.sinkCall().getInvokeExp().getArg(flow.index());
+        Map<Node, Node> next = Maps.newMap(); // node -> its successor on path
+        Queue<Node> queue = new ArrayDeque<>();
+        for (CSVar csVar : csManager.getCSVarsOf(sinkArg)) {
+            for (CSObj obj : csVar.getPointsToSet()) {
+                if (manager.isTaint(obj.getObject()) &&
+                        manager.getSourceCall(obj.getObject()).equals(flow.sourceCall())) {
+                    Node start = new Node(csVar, obj);
+                    next.put(start, null);
+                    queue.add(start);
+                }
+            }
+        }
+        while (!queue.isEmpty()) {
+            Node node = queue.poll();
+            Origin origin = origins.get(node.pointer(), node.taint());
+            if (origin != null && origin.kind() == Kind.SOURCE) {
+                return buildPath(node, next);
+            }
+            if (origin != null) {
+                Node pred = new Node(origin.pred(), origin.predTaint());
+                if (!next.containsKey(pred)) {
+                    next.put(pred, node);
+                    queue.add(pred);
+                }
+            }
+            for (Pointer p : predecessors.apply(node.pointer())) {
+                if (p.getPointsToSet().contains(node.taint())) {
+                    Node pred = new Node(p, node.taint());
+                    if (!next.containsKey(pred)) {
+                        next.put(pred, node);
+                        queue.add(pred);
+                    }
+                }
+            }
+        }
+        return List.of();
+    }
+
+    /**
+     * Builds the path from the source node by following successors,
+     * filling in the kind of each step.
+     */
+    private List<Step> buildPath(Node source, Map<Node, Node> next) {
+        List<Step> path = new ArrayList<>();
+        path.add(new Step(source.pointer(), source.taint(), Kind.SOURCE));
+        Node prev = source;
+        for (Node node = next.get(source); node != null; node = next.get(node)) {
+            // the step follows the recorded origin if it comes from prev,
+            // otherwise it follows a PFG edge
+            Origin origin = origins.get(node.pointer(), node.taint());
+            Kind kind = origin != null && origin.kind() != Kind.SOURCE &&
+                    origin.pred().equals(prev.pointer()) &&
+                    origin.predTaint().equals(prev.taint()) ?
+                    origin.kind() : Kind.FLOW;
+            path.add(new Step(node.pointer(), node.taint(), kind));
+            prev = node;
+        }
+        return Collections.unmodifiableList(path);
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta;
+
+import org.junit.Test;
+import pascal.taie.World;
+import pascal.taie.analysis.Tests;
+import pascal.taie.analysis.pta.core.heap.MockObj;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.analysis.pta.cs.CSPTA;
+import pascal.taie.ir.exp.Var;
+
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SummaryTest {
+
+    static final String DIR = "summary";
+
+    @Test
+    public void testSummary() {
+        Tests.testCSPTA(DIR, "Summary",
+                "summaries:src/test/resources/pta/summary/summaries.yml");
+        PointerAnalysisResult result = World.get().getResult(CSPTA.ID);
+        // copy
+        Set<Obj> sb = result.getPointsToSet(getMainVar("sb"));
+        assertFalse(sb.isEmpty());
+        assertEquals(sb, result.getPointsToSet(getMainVar("sb2")));
+        // store and load, the callee ArrayList.add() is dispatched from
+        // the summarized List.add()
+        Set<Obj> o = result.getPointsToSet(getMainVar("o"));
+        assertFalse(o.isEmpty());
+        assertEquals(o, result.getPointsToSet(getMainVar("o2")));
+        // alloc
+        Set<Obj> s1 = result.getPointsToSet(getMainVar("s1"));
+        assertEquals(1, s1.size());
+        Obj mock = s1.iterator().next();
+        assertTrue(mock instanceof MockObj mockObj &&
+                mockObj.getDescription().equals("SummaryObj"));
+        assertEquals("java.lang.String", mock.getType().getName());
+        // Item.toString() overrides the summarized Object.toString(),
+        // thus it is analyzed instead of being summarized
+        Set<Obj> s2 = result.getPointsToSet(getMainVar("s2"));
+        assertEquals(1, s2.size());
+        Obj name = s2.iterator().next();
+        assertFalse(name instanceof MockObj);
+        assertEquals("Item", name.getContainerMethod()
+                .orElseThrow()
+                .getDeclaringClass()
+                .getName());
+    }
+
+    private static Var getMainVar(String name) {
+        return World.get().getClassHierarchy()
+                .getClass("Summary")
+                .getDeclaredMethod("main")
+                .getIR()
+                .getVars()
+                .stream()
+                .filter(v -> v.getName().equals(name))
+                .findFirst()
+                .orElseThrow();
+    }
+}
@@ -23,7 +23,26 @@
 package pascal.taie.analysis.pta;
 
 import org.junit.Test;
+import pascal.taie.World;
 import pascal.taie.analysis.Tests;
+import pascal.taie.analysis.pta.core.cs.element.CSVar;
+import pascal.taie.analysis.pta.core.heap.MockObj;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.analysis.pta.cs.CSPTA;
+import pascal.taie.analysis.pta.plugin.taint.TaintAnalysiss;
+import pascal.taie.analysis.pta.plugin.taint.TaintFlow;
+import pascal.taie.analysis.pta.plugin.taint.TaintProvenance;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Invoke;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 public class TaintTest {
 
@@ -35,6 +54,55 @@ public class TaintTest {
                 "taint-config:src/test/resources/pta/taint/taint-config.yml");
     }
 
+    @Test
+    public void testSimpleTaintWithPaths() {
+        Tests.testCSPTA(DIR, "SimpleTaint",
+                "taint-paths:true;taint-config:src/test/resources/pta/taint/taint-config.yml");
+        PointerAnalysisResult result = World.get().getResult(CSPTA.ID);
+        TaintProvenance provenance = result.getResult(TaintProvenance.class.getName());
+        Set<TaintFlow> flows = result.getResult(TaintAnalysiss.class.getName());
+        assertEquals(4, flows.size());
+        for (TaintFlow flow : flows) {
+            List<TaintProvenance.Step> path = provenance.getPath(flow);
+            // the path starts at the result of the source call,
+            // and ends at the sink argument
+            assertEquals(TaintProvenance.Kind.SOURCE, path.get(0).kind());
+            assertEquals(flow.sourceCall().getLValue(), getVar(path.get(0)));
+            assertEquals(flow.sinkCall().getInvokeExp().getArg(flow.index()),
+                    getVar(path.get(path.size() - 1)));
+            path.subList(1, path.size()).forEach(step ->
+                    assertEquals(TaintProvenance.Kind.FLOW, step.kind()));
+            if (flow.sinkCall().getLineNumber() == 11 &&
+                    flow.sourceCall().getLineNumber() == 4) {
+                // s1 = source(); s3 = s1; sink(s3, 0);
+                assertEquals(List.of("temp$0", "s1", "s3"), path.stream()
+                        .map(step -> getVar(step).getName())
+                        .toList());
+            }
+        }
+    }
+
+    private static Var getVar(TaintProvenance.Step step) {
+        return ((CSVar) step.pointer()).getVar();
+    }
+
+    @Test
+    public void testSimpleTaintMultiConfig() {
+        Tests.testCSPTA(DIR, "SimpleTaint",
+                "taint-config:a=src/test/resources/pta/taint/taint-config.yml," +
+                        "b=src/test/resources/pta/taint/taint-config-sink.yml");
+        PointerAnalysisResult result = World.get().getResult(CSPTA.ID);
+        Map<String, Set<TaintFlow>> flowsByConfig =
+                result.getResult(TaintAnalysiss.FLOWS_BY_CONFIG);
+        assertEquals(List.of("a", "b"), List.copyOf(flowsByConfig.keySet()));
+        assertEquals(4, flowsByConfig.get("a").size());
+        // config b only contains sink(String), i.e., the sinks at L5 and L8
+        assertEquals(Set.of(5, 8), flowsByConfig.get("b")
+                .stream()
+                .map(flow -> flow.sinkCall().getLineNumber())
+                .collect(Collectors.toSet()));
+    }
+
     @Test
     public void testArgToResult() {
         Tests.testCSPTA(DIR, "ArgToResult",
@@ -53,6 +121,24 @@ public class TaintTest {
                 "taint-config:src/test/resources/pta/taint/taint-config.yml");
     }
 
+    @Test
+    public void testStringAppendLabel() {
+        Tests.testCSPTA(DIR, "StringAppend",
+                "taint-repr:label;taint-config:src/test/resources/pta/taint/taint-config.yml");
+    }
+
+    @Test
+    public void testReceiverTaint() {
+        Tests.testCSPTA(DIR, "ReceiverTaint",
+                "taint-config:src/test/resources/pta/taint/taint-config-receiver.yml");
+    }
+
+    @Test
+    public void testReceiverTaintLabel() {
+        Tests.testCSPTA(DIR, "ReceiverTaint",
+                "taint-repr:label;taint-config:src/test/resources/pta/taint/taint-config-receiver.yml");
+    }
+
     @Test
     public void testOneCallTaint() {
         Tests.testCSPTA(DIR, "OneCallTaint",
@@ -65,9 +151,98 @@ public class TaintTest {
                 "cs:2-call;taint-config:src/test/resources/pta/taint/taint-config.yml");
     }
 
+    @Test
+    public void testInterTaintTransferPruned() {
+        Tests.testCSPTA(DIR, "InterTaintTransfer",
+                "cs:2-call;taint-mode:taint-pruning;taint-config:src/test/resources/pta/taint/taint-config.yml");
+    }
+
+    @Test
+    public void testPrunedTaint() {
+        Tests.testCSPTA(DIR, "PrunedTaint",
+                "taint-mode:taint-pruning;taint-config:src/test/resources/pta/taint/taint-config.yml");
+        PointerAnalysisResult result = World.get().getResult(CSPTA.ID);
+        // only the source call at L4 reaches a sink, thus the irrelevant
+        // source call at L7 creates no taint object
+        Set<Integer> sourceLines = result.getObjects()
+                .stream()
+                .filter(TaintTest::isTaint)
+                .map(obj -> ((Invoke) obj.getAllocation()).getLineNumber())
+                .collect(Collectors.toSet());
+        assertEquals(Set.of(4), sourceLines);
+        // the sink at L11 is excluded, and no taint object reaches it
+        Var s4 = getMainVar("PrunedTaint", "s4");
+        assertTrue(result.getPointsToSet(s4).stream().noneMatch(TaintTest::isTaint));
+    }
+
+    /**
+     * @return the variable of given name in main method of given class.
+     */
+    private static Var getMainVar(String mainClass, String name) {
+        IR ir = World.get().getClassHierarchy()
+                .getClass(mainClass)
+                .getDeclaredMethod("main")
+                .getIR();
+        return ir.getVars()
+                .stream()
+                .filter(v -> v.getName().equals(name))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private static boolean isTaint(Obj obj) {
+        return obj instanceof MockObj mockObj &&
+                mockObj.getDescription().startsWith("TaintObj");
+    }
+
+    @Test
+    public void testSanitizeTaint() {
+        Tests.testCSPTA(DIR, "SanitizeTaint",
+                "taint-config:src/test/resources/pta/taint/taint-config-sanitizer.yml");
+    }
+
+    @Test
+    public void testNarrowTaint() {
+        Tests.testCSPTA(DIR, "NarrowTaint",
+                "taint-config:a=src/test/resources/pta/taint/taint-config-sanitizer.yml," +
+                        "b=src/test/resources/pta/taint/taint-config.yml");
+        PointerAnalysisResult result = World.get().getResult(CSPTA.ID);
+        Map<String, Set<TaintFlow>> flowsByConfig =
+                result.getResult(TaintAnalysiss.FLOWS_BY_CONFIG);
+        assertTrue(flowsByConfig.get("a").isEmpty());
+        assertEquals(1, flowsByConfig.get("b").size());
+        // the result of clean() is only sanitized in config a, thus its
+        // taint objects are narrowed to config b instead of being killed
+        assertEquals(Set.of("TaintObj"), getTaintDescriptions(
+                result, getMainVar("NarrowTaint", "s1")));
+        assertEquals(Set.of("TaintObj@2"), getTaintDescriptions(
+                result, getMainVar("NarrowTaint", "s2")));
+    }
+
+    private static Set<String> getTaintDescriptions(
+            PointerAnalysisResult result, Var var) {
+        return result.getPointsToSet(var)
+                .stream()
+                .filter(TaintTest::isTaint)
+                .map(obj -> ((MockObj) obj).getDescription())
+                .collect(Collectors.toSet());
+    }
+
+    @Test
+    public void testInterfaceSink() {
+        Tests.testCSPTA(DIR, "InterfaceSink",
+                "taint-config:src/test/resources/pta/taint/taint-config-channel.yml");
+    }
+
     @Test
     public void testTaintInList() {
         Tests.testCSPTA(DIR, "TaintInList",
                 "cs:2-obj;taint-config:src/test/resources/pta/taint/taint-config.yml");
     }
+
+    @Test
+    public void testContainerTaint() {
+        Tests.testCSPTA(DIR, "ContainerTaint",
+                "taint-config:src/test/resources/pta/taint/taint-config-container.yml");
+    }
 }
@@ -0,0 +1,30 @@
+import java.util.ArrayList;
+import java.util.List;
+
+class Summary {
+
+    public static void main(String[] args) {
+        StringBuilder sb = new StringBuilder();
+        StringBuilder sb2 = sb.append("x"); // copy: base -> result
+
+        List<Object> l = new ArrayList<>();
+        Object o = new Object();
+        l.add(o); // store: 0 -> base.element
+        Object o2 = l.get(0); // load: base.element -> result
+
+        String s1 = o.toString(); // alloc: new java.lang.String -> result
+
+        Object item = new Item();
+        String s2 = item.toString(); // Item.toString() is not summarized
+    }
+}
+
+class Item {
+
+    private final String name = new String();
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,39 @@
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+class ContainerTaint {
+
+    public static void main(String[] args) {
+        List<String> l1 = new ArrayList<>();
+        l1.add(SourceSink.source());
+        Object o1 = l1.get(0);
+        sink(o1); // taint
+
+        String k = new String();
+        Map<String, String> m = new HashMap<>();
+        m.put(k, SourceSink.source());
+        Object o2 = m.get(k);
+        sink(o2); // taint
+
+        List<Object> l3 = new SinkList();
+        l3.add(SourceSink.source()); // taint in SinkList.add()
+
+        List<String> l4 = new ArrayList<>();
+        l4.add(new String());
+        sink(l4.get(0)); // no taint
+    }
+
+    static void sink(Object o) {
+    }
+}
+
+class SinkList extends ArrayList<Object> {
+
+    @Override
+    public boolean add(Object o) {
+        ContainerTaint.sink(o); // not covered by the summary of List.add()
+        return true;
+    }
+}
@@ -0,0 +1,19 @@
+class InterfaceSink {
+
+    public static void main(String[] args) {
+        String s = SourceSink.source();
+        Channel c = new ConsoleChannel();
+        c.send(s); // taint: the sink is an interface method
+    }
+}
+
+interface Channel {
+
+    void send(String s);
+}
+
+class ConsoleChannel implements Channel {
+
+    public void send(String s) {
+    }
+}
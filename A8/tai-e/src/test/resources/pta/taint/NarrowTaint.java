@@ -0,0 +1,8 @@
+class NarrowTaint {
+
+    public static void main(String[] args) {
+        String s1 = SourceSink.source();
+        String s2 = Cleaner.clean(s1);
+        SourceSink.sink(s2); // only sanitized in one of the configs
+    }
+}
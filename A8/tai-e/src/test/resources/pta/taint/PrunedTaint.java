@@ -0,0 +1,13 @@
+class PrunedTaint {
+
+    public static void main(String[] args) {
+        String s1 = SourceSink.source();
+        SourceSink.sink(s1); // taint
+
+        String s2 = SourceSink.source(); // reaches no sink
+        String s3 = s2.concat("x");
+
+        String s4 = new String();
+        SourceSink.sink(s4, 0); // reached by no source
+    }
+}
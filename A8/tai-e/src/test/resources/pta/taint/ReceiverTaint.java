@@ -0,0 +1,21 @@
+class ReceiverTaint {
+
+    public static void main(String[] args) {
+        Data d = Data.source();
+        d.leak(); // taint flows to "this" of leak()
+    }
+}
+
+class Data {
+
+    static Data source() {
+        return new Data();
+    }
+
+    static void sink(Data d) {
+    }
+
+    void leak() {
+        sink(this);
+    }
+}
@@ -0,0 +1,23 @@
+class SanitizeTaint {
+
+    public static void main(String[] args) {
+        String s1 = SourceSink.source();
+        String s2 = Cleaner.clean(s1);
+        SourceSink.sink(s2); // no taint: killed at the result of clean()
+
+        String s3 = SourceSink.source();
+        Cleaner.check(s3); // no taint in check(): killed at its argument
+        SourceSink.sink(s3); // taint
+    }
+}
+
+class Cleaner {
+
+    static String clean(String s) {
+        return s;
+    }
+
+    static void check(String s) {
+        SourceSink.sink(s);
+    }
+}